@@ -0,0 +1,74 @@
+package br.ufsc.ppgcc.experion.model.evidence.builder.engine;
+
+import br.ufsc.ppgcc.experion.extractor.evidence.PhysicalEvidence;
+import br.ufsc.ppgcc.experion.model.evidence.LogicalEvidence;
+import br.ufsc.ppgcc.experion.model.support.ACMClassification;
+import br.ufsc.ppgcc.experion.model.support.ACMClassificationRegistry;
+import br.ufsc.ppgcc.experion.model.support.SyntheticWorkload;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evidence building with the ACM Classification
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ACMLogicalEvidenceBuilderBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int evidenceCount;
+
+    @Param({"10"})
+    public int keywordCount;
+
+    private ACMLogicalEvidenceBuilder builder;
+    private Set<PhysicalEvidence> evidences;
+
+    @Setup
+    public void setup() throws IOException {
+        builder = new ACMLogicalEvidenceBuilder();
+        evidences = evidences(evidenceCount, keywordCount, 0.3, 42);
+    }
+
+    /**
+     * Synthetic evidences, with the given ratio of them in portuguese
+     */
+    public static Set<PhysicalEvidence> evidences(int count, int keywordCount, double portugueseRatio, long seed) throws IOException {
+        ACMClassification english = ACMClassificationRegistry.get("en");
+        ACMClassification portuguese = ACMClassificationRegistry.get("pt");
+        int portugueseCount = (int) (count * portugueseRatio);
+
+        List<Set<String>> keywordSets = new ArrayList<>();
+        keywordSets.addAll(SyntheticWorkload.keywordSets(portuguese, portugueseCount, keywordCount, seed));
+        keywordSets.addAll(SyntheticWorkload.keywordSets(english, count - portugueseCount, keywordCount, seed));
+
+        Set<PhysicalEvidence> evidences = new LinkedHashSet<>();
+        for (int i = 0; i < keywordSets.size(); i++) {
+            PhysicalEvidence evidence = new PhysicalEvidence();
+            evidence.setLanguage(i < portugueseCount ? "pt" : "en");
+            evidence.getKeywords().addAll(keywordSets.get(i));
+            evidences.add(evidence);
+        }
+        return evidences;
+    }
+
+    @Benchmark
+    public Map<ACMClassification.ACMClassificationNode, List<PhysicalEvidence>> buildFor() {
+        return builder.buildFor(evidences);
+    }
+
+    @Benchmark
+    public Set<LogicalEvidence> getLogicalEvidences() {
+        return builder.getLogicalEvidences(evidences);
+    }
+}
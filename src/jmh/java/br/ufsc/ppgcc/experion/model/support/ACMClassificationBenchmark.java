@@ -0,0 +1,96 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading, classification and tree view of the ACM Classification
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ACMClassificationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Classification {
+
+        @Param({"en", "pt"})
+        public String language;
+
+        @Param({"1", "5", "10", "20"})
+        public int keywordCount;
+
+        ACMClassification classification;
+        List<Set<String>> keywordSets;
+        int next = 0;
+
+        @Setup
+        public void setup() throws Exception {
+            classification = new ACMClassification();
+            if (language.equals("pt")) {
+                classification.loadXMLInPTBR();
+            } else {
+                classification.loadXML();
+            }
+            keywordSets = SyntheticWorkload.keywordSets(classification, 1024, keywordCount, 42);
+        }
+
+        Set<String> nextKeywords() {
+            next = (next + 1) & 1023;
+            return keywordSets.get(next);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ACMClassification parseXML() throws Exception {
+        ACMClassification classification = new ACMClassification();
+        classification.parseXML();
+        return classification;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ACMClassification parseXMLInPTBR() throws Exception {
+        ACMClassification classification = new ACMClassification();
+        classification.parseXMLInPTBR();
+        return classification;
+    }
+
+    /**
+     * Uses the bundled snapshot when the build generated it
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ACMClassification loadXML() throws Exception {
+        ACMClassification classification = new ACMClassification();
+        classification.loadXML();
+        return classification;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ACMClassification loadXMLInPTBR() throws Exception {
+        ACMClassification classification = new ACMClassification();
+        classification.loadXMLInPTBR();
+        return classification;
+    }
+
+    @Benchmark
+    public List<ACMClassification.ACMClassificationNode> getTrueLabel(Classification state) {
+        return state.classification.getTrueLabel(state.nextKeywords());
+    }
+
+    @Benchmark
+    public String getTreeView(Classification state) {
+        return state.classification.getTreeView();
+    }
+}
@@ -0,0 +1,394 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import br.ufsc.ppgcc.experion.extractor.evidence.PhysicalEvidence;
+import br.ufsc.ppgcc.experion.model.evidence.builder.engine.ACMLogicalEvidenceBuilder;
+
+import java.io.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sustained concurrent load on {@link ACMClassification#getTrueLabel(Collection)} or
+ * {@link ACMLogicalEvidenceBuilder#buildFor(Set)}, replaying synthetic or recorded keyword sets.
+ *
+ * Each configuration runs N threads either in closed loop, each thread starting a call as soon as the previous
+ * one returns, or at a fixed total rate, where latency is measured from the time each call was due so a
+ * stalled call also counts against the calls queued behind it. Latency percentiles are recorded with
+ * {@link ACMHistogram}, with throughput, allocation rate and GC activity of the measured period, and all
+ * configurations are written to a JSON report.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar br.ufsc.ppgcc.experion.model.support.ACMLoadGenerator \
+ *     target=trueLabel mode=closed threads=1,2,4,8 duration=30 report=load.json
+ * </pre>
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public class ACMLoadGenerator {
+
+    public enum Target {
+        TRUE_LABEL, BUILD_FOR
+    }
+
+    public enum Mode {
+        CLOSED, FIXED_RATE
+    }
+
+    /**
+     * Keyword set of a recorded or synthetic evidence
+     */
+    public static final class Request {
+        private final String language;
+        private final Set<String> keywords;
+
+        public Request(String language, Set<String> keywords) {
+            this.language = language;
+            this.keywords = keywords;
+        }
+    }
+
+    /**
+     * Measurements of a configuration
+     */
+    public static final class Result {
+        private final Target target;
+        private final Mode mode;
+        private final int threads;
+        private final double rate;
+        private final long durationNanos;
+        private final long operations;
+        private final long errors;
+        private final ACMHistogram latency;
+        private final long allocatedBytes;
+        private final long gcCount;
+        private final long gcMillis;
+
+        private Result(Target target, Mode mode, int threads, double rate, long durationNanos, long operations, long errors,
+                       ACMHistogram latency, long allocatedBytes, long gcCount, long gcMillis) {
+            this.target = target;
+            this.mode = mode;
+            this.threads = threads;
+            this.rate = rate;
+            this.durationNanos = durationNanos;
+            this.operations = operations;
+            this.errors = errors;
+            this.latency = latency;
+            this.allocatedBytes = allocatedBytes;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+        }
+
+        public long getOperations() {
+            return operations;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * Latency of the calls, in nanoseconds
+         */
+        public ACMHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * Calls completed per second
+         */
+        public double getThroughput() {
+            return operations * 1e9 / durationNanos;
+        }
+
+        /**
+         * Bytes allocated per second by the load threads, or -1 if the JVM does not report it
+         */
+        public double getAllocationRate() {
+            return allocatedBytes < 0 ? -1 : allocatedBytes * 1e9 / durationNanos;
+        }
+
+        public String toJson() {
+            return String.format(Locale.ROOT, "{\"target\":\"%s\",\"mode\":\"%s\",\"threads\":%d,\"rate\":%.1f,"
+                            + "\"durationMillis\":%d,\"operations\":%d,\"errors\":%d,\"throughput\":%.1f,"
+                            + "\"latencyMicros\":{\"mean\":%.1f,\"p50\":%.1f,\"p90\":%.1f,\"p99\":%.1f,\"p999\":%.1f,\"max\":%.1f},"
+                            + "\"allocatedBytesPerSecond\":%.0f,\"allocatedBytesPerOperation\":%.0f,\"gcCount\":%d,\"gcMillis\":%d}",
+                    target, mode, threads, rate, durationNanos / 1000000, operations, errors, getThroughput(),
+                    latency.getMean() / 1e3, latency.getPercentile(50) / 1e3, latency.getPercentile(90) / 1e3,
+                    latency.getPercentile(99) / 1e3, latency.getPercentile(99.9) / 1e3, latency.getMax() / 1e3,
+                    getAllocationRate(), allocatedBytes < 0 || operations == 0 ? -1.0 : (double) allocatedBytes / operations,
+                    gcCount, gcMillis);
+        }
+
+        public String toString() {
+            return String.format(Locale.ROOT, "%s %s threads=%d: %.0f ops/s, latency(us) p50=%.1f p99=%.1f max=%.1f, %.1f MB/s allocated, %d GCs",
+                    target, mode, threads, getThroughput(), latency.getP50() / 1e3, latency.getP99() / 1e3,
+                    latency.getMax() / 1e3, getAllocationRate() / (1024 * 1024), gcCount);
+        }
+    }
+
+    /**
+     * A single call, on the i-th request of a thread
+     */
+    private interface Operation {
+        void run(int index) throws Exception;
+    }
+
+    private final List<Request> requests;
+    private int evidencesPerCall = 100;
+
+    public ACMLoadGenerator(List<Request> requests) {
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("No requests to replay");
+        }
+        this.requests = requests;
+    }
+
+    /**
+     * Evidences classified by each {@link Target#BUILD_FOR} call
+     */
+    public void setEvidencesPerCall(int evidencesPerCall) {
+        this.evidencesPerCall = evidencesPerCall;
+    }
+
+    /**
+     * Synthetic keyword sets drawn from the labels of the shared classifications, reproducible for the same seed
+     *
+     * @param portugueseRatio share of the requests in portuguese
+     */
+    public static List<Request> synthetic(int count, int keywordCount, double portugueseRatio, long seed) throws IOException {
+        int portugueseCount = (int) (count * portugueseRatio);
+        List<Request> requests = new ArrayList<>(count);
+        for (Set<String> keywords : SyntheticWorkload.keywordSets(ACMClassificationRegistry.get("pt"), portugueseCount, keywordCount, seed)) {
+            requests.add(new Request("pt", keywords));
+        }
+        for (Set<String> keywords : SyntheticWorkload.keywordSets(ACMClassificationRegistry.get("en"), count - portugueseCount, keywordCount, seed)) {
+            requests.add(new Request("en", keywords));
+        }
+        Collections.shuffle(requests, new Random(seed));
+        return requests;
+    }
+
+    /**
+     * Recorded requests, one per line as {@code language<TAB>keyword,keyword}, or only the keywords for english
+     */
+    public static List<Request> recorded(BufferedReader reader) throws IOException {
+        List<Request> requests = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int tab = line.indexOf('\t');
+            String language = tab < 0 ? ACMMultilingualClassification.DEFAULT_LANGUAGE : line.substring(0, tab).trim();
+            Set<String> keywords = new LinkedHashSet<>();
+            for (String keyword : line.substring(tab + 1).split(",")) {
+                if (!keyword.trim().isEmpty()) {
+                    keywords.add(keyword.trim());
+                }
+            }
+            if (!keywords.isEmpty()) {
+                requests.add(new Request(language, keywords));
+            }
+        }
+        return requests;
+    }
+
+    /**
+     * Runs a configuration
+     *
+     * @param rate calls per second of all threads together, for {@link Mode#FIXED_RATE}
+     */
+    public Result run(Target target, Mode mode, int threads, double rate, long warmupNanos, long durationNanos) throws Exception {
+        if (mode == Mode.FIXED_RATE && rate <= 0) {
+            throw new IllegalArgumentException("Fixed rate runs need a positive rate");
+        }
+        Operation operation = operation(target);
+        ACMHistogram latency = new ACMHistogram();
+        LongAdder operations = new LongAdder();
+        LongAdder errors = new LongAdder();
+        LongAdder allocated = new LongAdder();
+        long intervalNanos = mode == Mode.FIXED_RATE ? (long) (threads * 1e9 / rate) : 0;
+        boolean allocationReported = allocatedBytes() >= 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+        long measureStart = start + warmupNanos;
+        long end = measureStart + durationNanos;
+        List<Future<?>> workers = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            int first = thread;
+            // Threads are spread over the interval, so a fixed rate is not a burst of N calls
+            long offset = intervalNanos * thread / threads;
+            workers.add(executor.submit(() -> {
+                long allocatedStart = -1;
+                long due = start + offset;
+                for (int index = first; ; index += threads) {
+                    if (mode == Mode.CLOSED) {
+                        due = System.nanoTime();
+                    }
+                    if (due >= end) {
+                        break;
+                    }
+                    long wait;
+                    while ((wait = due - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    boolean measured = due >= measureStart;
+                    if (measured && allocationReported && allocatedStart < 0) {
+                        allocatedStart = allocatedBytes();
+                    }
+
+                    try {
+                        operation.run(index);
+                        if (measured) {
+                            latency.record(System.nanoTime() - due);
+                            operations.increment();
+                        }
+                    } catch (Exception e) {
+                        if (measured) {
+                            errors.increment();
+                        }
+                    }
+                    due += intervalNanos;
+                }
+                if (allocatedStart >= 0) {
+                    allocated.add(allocatedBytes() - allocatedStart);
+                }
+            }));
+        }
+
+        long[] gcStart = null;
+        try {
+            TimeUnit.NANOSECONDS.sleep(Math.max(0, measureStart - System.nanoTime()));
+            gcStart = gcStatistics();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long[] gcEnd = gcStatistics();
+        return new Result(target, mode, threads, rate, durationNanos, operations.sum(), errors.sum(), latency,
+                allocationReported ? allocated.sum() : -1, gcEnd[0] - gcStart[0], gcEnd[1] - gcStart[1]);
+    }
+
+    private Operation operation(Target target) throws IOException {
+        if (target == Target.TRUE_LABEL) {
+            ACMClassification[] classifications = new ACMClassification[requests.size()];
+            for (int i = 0; i < classifications.length; i++) {
+                classifications[i] = ACMClassificationRegistry.getDefault().getOrDefault(requests.get(i).language);
+            }
+            return index -> {
+                int request = index % classifications.length;
+                classifications[request].getTrueLabel(requests.get(request).keywords);
+            };
+        }
+
+        ACMLogicalEvidenceBuilder builder = new ACMLogicalEvidenceBuilder();
+        List<Set<PhysicalEvidence>> calls = new ArrayList<>();
+        for (int from = 0; from < requests.size(); from += evidencesPerCall) {
+            Set<PhysicalEvidence> evidences = new LinkedHashSet<>();
+            for (Request request : requests.subList(from, Math.min(from + evidencesPerCall, requests.size()))) {
+                PhysicalEvidence evidence = new PhysicalEvidence();
+                evidence.setLanguage(request.language);
+                evidence.getKeywords().addAll(request.keywords);
+                evidences.add(evidence);
+            }
+            calls.add(evidences);
+        }
+        return index -> builder.buildFor(calls.get(index % calls.size()));
+    }
+
+    /**
+     * Bytes allocated by the current thread, or -1 if the JVM does not report it
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Collections and collection time in milliseconds of all collectors
+     */
+    private static long[] gcStatistics() {
+        long[] statistics = new long[2];
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            statistics[0] += Math.max(0, collector.getCollectionCount());
+            statistics[1] += Math.max(0, collector.getCollectionTime());
+        }
+        return statistics;
+    }
+
+    /**
+     * JSON report of the configurations, with the processors, heap and JVM they ran on
+     */
+    public static String report(List<Result> results) {
+        StringBuilder json = new StringBuilder(String.format(Locale.ROOT,
+                "{\"environment\":{\"processors\":%d,\"maxHeapBytes\":%d,\"jvm\":\"%s %s\"},\"results\":[",
+                Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().maxMemory(),
+                System.getProperty("java.vm.name"), System.getProperty("java.version")));
+        for (int i = 0; i < results.size(); i++) {
+            json.append(i > 0 ? "," : "").append(results.get(i).toJson());
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Runs each thread count and writes the report
+     *
+     * @param args {@code key=value} options: target (trueLabel, buildFor), mode (closed, fixedRate),
+     *             threads (comma separated counts), rate (calls per second), warmup and duration (seconds),
+     *             workload (recorded file; synthetic when absent), requests and keywords (synthetic workload size),
+     *             evidences (per buildFor call) and report (JSON file; standard output when absent)
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Options are key=value: " + arg);
+            }
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+
+        Target target = options.getOrDefault("target", "trueLabel").equals("buildFor") ? Target.BUILD_FOR : Target.TRUE_LABEL;
+        Mode mode = options.getOrDefault("mode", "closed").equals("fixedRate") ? Mode.FIXED_RATE : Mode.CLOSED;
+        double rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        long warmup = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("warmup", "10")));
+        long duration = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("duration", "30")));
+
+        List<Request> requests;
+        if (options.containsKey("workload")) {
+            try (BufferedReader reader = Files.newBufferedReader(Paths.get(options.get("workload")), StandardCharsets.UTF_8)) {
+                requests = recorded(reader);
+            }
+        } else {
+            requests = synthetic(Integer.parseInt(options.getOrDefault("requests", "10000")),
+                    Integer.parseInt(options.getOrDefault("keywords", "5")), 0.3, 42);
+        }
+        ACMLoadGenerator generator = new ACMLoadGenerator(requests);
+        generator.setEvidencesPerCall(Integer.parseInt(options.getOrDefault("evidences", "100")));
+
+        List<Result> results = new ArrayList<>();
+        for (String threads : options.getOrDefault("threads", "1,2,4,8").split(",")) {
+            Result result = generator.run(target, mode, Integer.parseInt(threads.trim()), rate, warmup, duration);
+            System.out.println(result);
+            results.add(result);
+        }
+
+        String report = report(results);
+        if (options.containsKey("report")) {
+            Files.write(Paths.get(options.get("report")), report.getBytes(StandardCharsets.UTF_8));
+        } else {
+            System.out.println(report);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import java.util.*;
+
+/**
+ * Synthetic keyword sets drawn from the labels of a loaded ACM Classification
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public final class SyntheticWorkload {
+
+    private SyntheticWorkload() {
+    }
+
+    /**
+     * Words of the node labels of the classification, with their repetitions
+     */
+    public static List<String> vocabulary(ACMClassification classification) {
+        List<String> words = new ArrayList<>();
+        for (ACMClassification.ACMClassificationNode node : classification.getNodes()) {
+            for (String label : node.getLabels()) {
+                if (!label.trim().isEmpty()) {
+                    words.add(label);
+                }
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Keyword sets of the given size, reproducible for the same seed
+     */
+    public static List<Set<String>> keywordSets(ACMClassification classification, int count, int size, long seed) {
+        List<String> vocabulary = vocabulary(classification);
+        Random random = new Random(seed);
+        List<Set<String>> keywordSets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Set<String> keywords = new HashSet<>();
+            while (keywords.size() < size) {
+                keywords.add(vocabulary.get(random.nextInt(vocabulary.size())));
+            }
+            keywordSets.add(keywords);
+        }
+        return keywordSets;
+    }
+}
@@ -0,0 +1,82 @@
+package br.ufsc.ppgcc.experion.model.evidence.builder.engine;
+
+import br.ufsc.ppgcc.experion.model.support.ACMClassification;
+import br.ufsc.ppgcc.experion.model.support.BoundedCache;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+
+/**
+ * Size-bounded LRU cache of classification results, for evidences with repeated keywords.
+ *
+ * Keywords are canonicalized as the classifier sees them (stop words removed, stemmed and sorted),
+ * so sets differing only in case, order, inflection or stop words share the same entry. Entries are also
+ * keyed by the {@link ACMClassification#getFingerprint() fingerprint} of the classifier, so classifications
+ * with other labels or weights, such as a revised vocabulary, do not share them.
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ * @see ACMLogicalEvidenceBuilder#setResultCache(ACMClassificationCache)
+ */
+public class ACMClassificationCache {
+
+    private final BoundedCache<String, List<ACMClassification.ACMClassificationNode>> results;
+
+    public ACMClassificationCache(int maximumSize) {
+        this.results = new BoundedCache<>(maximumSize);
+    }
+
+    /**
+     * Classifies the keywords with the classifier, unless a result for the same canonical keywords is cached
+     */
+    public List<ACMClassification.ACMClassificationNode> getTrueLabel(ACMClassification classifier, Collection<String> keywords) {
+        return getTrueLabel(classifier, keywords, key(classifier, keywords));
+    }
+
+    /**
+     * Same as {@link #getTrueLabel(ACMClassification, Collection)}, with the key of the keywords already computed
+     */
+    List<ACMClassification.ACMClassificationNode> getTrueLabel(ACMClassification classifier, Collection<String> keywords, String key) {
+        return results.get(key, ignored -> Collections.unmodifiableList(classifier.getTrueLabel(keywords)));
+    }
+
+    static String key(ACMClassification classifier, Collection<String> keywords) {
+        return termsKey(classifier, classifier.getAnalyzer().analyze(keywords));
+    }
+
+    /**
+     * Key of keywords already analyzed by the analyzer of the classifier
+     */
+    static String termsKey(ACMClassification classifier, Set<String> terms) {
+        return classifier.getLanguage() + "|" + Long.toHexString(classifier.getFingerprint()) + "|"
+                + StringUtils.join(new TreeSet<>(terms), " ");
+    }
+
+    public void clear() {
+        results.clear();
+    }
+
+    public long size() {
+        return results.size();
+    }
+
+    public long getHitCount() {
+        return results.getHitCount();
+    }
+
+    public long getMissCount() {
+        return results.getMissCount();
+    }
+
+    public long getEvictionCount() {
+        return results.getEvictionCount();
+    }
+
+    public double getHitRatio() {
+        return results.getHitRatio();
+    }
+
+    public String toString() {
+        return results.toString();
+    }
+}
@@ -0,0 +1,69 @@
+package br.ufsc.ppgcc.experion.model.evidence.builder.engine;
+
+import br.ufsc.ppgcc.experion.extractor.evidence.PhysicalEvidence;
+import br.ufsc.ppgcc.experion.model.evidence.LogicalEvidence;
+import br.ufsc.ppgcc.experion.model.support.ACMClassification;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Physical evidences of a concept and of all the concepts below it, with their weighted count
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ * @see ACMEvidenceRollup
+ */
+public class ACMConceptEvidence {
+
+    private final ACMClassification.ACMClassificationNode concept;
+    private final Set<PhysicalEvidence> physicalEvidences;
+    private final int directCount;
+    private final double weight;
+
+    ACMConceptEvidence(ACMClassification.ACMClassificationNode concept, Set<PhysicalEvidence> physicalEvidences, int directCount, double weight) {
+        this.concept = concept;
+        this.physicalEvidences = Collections.unmodifiableSet(physicalEvidences);
+        this.directCount = directCount;
+        this.weight = weight;
+    }
+
+    public ACMClassification.ACMClassificationNode getConcept() {
+        return concept;
+    }
+
+    /**
+     * Evidences classified into the concept or into any concept below it
+     */
+    public Set<PhysicalEvidence> getPhysicalEvidences() {
+        return physicalEvidences;
+    }
+
+    public int getCount() {
+        return physicalEvidences.size();
+    }
+
+    /**
+     * Number of evidences classified into the concept itself
+     */
+    public int getDirectCount() {
+        return directCount;
+    }
+
+    /**
+     * Sum of the level weights of the evidences, each one weighted by its distance to the concept
+     */
+    public double getWeight() {
+        return weight;
+    }
+
+    public LogicalEvidence toLogicalEvidence() {
+        LogicalEvidence logicalEvidence = new LogicalEvidence(concept.getFullTrueLabel());
+        logicalEvidence.getPhysicalEvidences().addAll(physicalEvidences);
+        return logicalEvidence;
+    }
+
+    public String toString() {
+        return String.format("%s => %d (%d direct), %f", concept.getFullTrueLabel(), getCount(), directCount, weight);
+    }
+}
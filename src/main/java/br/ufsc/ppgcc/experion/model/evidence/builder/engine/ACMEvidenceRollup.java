@@ -0,0 +1,156 @@
+package br.ufsc.ppgcc.experion.model.evidence.builder.engine;
+
+import br.ufsc.ppgcc.experion.extractor.evidence.PhysicalEvidence;
+import br.ufsc.ppgcc.experion.model.support.ACMClassification;
+import br.ufsc.ppgcc.experion.model.support.ACMTaxonomy;
+
+import java.util.*;
+
+/**
+ * Rolls the evidences of the classified concepts up to all of their ancestors, following every broader
+ * link of the ACM hierarchy, in a single bottom-up pass.
+ *
+ * An evidence counts once for each ancestor, at its shortest distance to it (0 for the concept it was
+ * classified into), and is weighted by the level weight of that distance.
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ * @see ACMLogicalEvidenceBuilder#getRolledUpEvidences(Set, ACMEvidenceRollup)
+ */
+public class ACMEvidenceRollup {
+
+    private int maxDistance = Integer.MAX_VALUE;
+    private int minDepth = 1;
+    private double[] levelWeights = {1.0};
+
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * Number of levels the evidences are rolled up; 0 keeps them in the classified concepts
+     */
+    public void setMaxDistance(int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Maximum distance must not be negative: " + maxDistance);
+        }
+        this.maxDistance = maxDistance;
+    }
+
+    public int getMinDepth() {
+        return minDepth;
+    }
+
+    /**
+     * Concepts above this depth (1 for the roots) are left out of the result
+     */
+    public void setMinDepth(int minDepth) {
+        this.minDepth = minDepth;
+    }
+
+    public double[] getLevelWeights() {
+        return levelWeights.clone();
+    }
+
+    /**
+     * Weight of an evidence by its distance to the concept; distances past the end use the last weight
+     */
+    public void setLevelWeights(double... levelWeights) {
+        if (levelWeights.length == 0) {
+            throw new IllegalArgumentException("At least one level weight is required");
+        }
+        this.levelWeights = levelWeights.clone();
+    }
+
+    private double weight(int distance) {
+        return levelWeights[Math.min(distance, levelWeights.length - 1)];
+    }
+
+    /**
+     * Rolls up the classified evidences, as returned by {@link ACMLogicalEvidenceBuilder#buildFor(Set)}
+     *
+     * @param classification classification whose hierarchy and nodes are used; concepts are matched by id
+     * @return the concepts with evidences, by descending weight
+     */
+    public List<ACMConceptEvidence> rollUp(ACMClassification classification,
+                                           Map<ACMClassification.ACMClassificationNode, ? extends Collection<PhysicalEvidence>> evidences) {
+        ACMTaxonomy taxonomy = classification.getTaxonomy();
+        List<PhysicalEvidence> physicalEvidences = new ArrayList<>();
+        Map<PhysicalEvidence, Integer> evidenceIds = new HashMap<>();
+
+        // Evidences reaching each concept, by distance; null for concepts without evidences
+        BitSet[][] layers = new BitSet[taxonomy.size()][];
+        for (Map.Entry<ACMClassification.ACMClassificationNode, ? extends Collection<PhysicalEvidence>> entry : evidences.entrySet()) {
+            int concept = taxonomy.getConcept(entry.getKey().getId());
+            if (concept < 0) {
+                continue;
+            }
+            BitSet direct = new BitSet();
+            for (PhysicalEvidence physicalEvidence : entry.getValue()) {
+                Integer id = evidenceIds.get(physicalEvidence);
+                if (id == null) {
+                    id = physicalEvidences.size();
+                    evidenceIds.put(physicalEvidence, id);
+                    physicalEvidences.add(physicalEvidence);
+                }
+                direct.set(id);
+            }
+            layers[concept] = new BitSet[]{direct};
+        }
+
+        int[] order = taxonomy.getTopologicalOrder();
+        for (int i = order.length - 1; i >= 0; i--) {
+            int concept = order[i];
+            List<BitSet> merged = new ArrayList<>();
+            if (layers[concept] != null) {
+                merged.add(layers[concept][0]);
+            }
+            for (int child : taxonomy.getChildren(concept)) {
+                if (layers[child] == null) {
+                    continue;
+                }
+                for (int distance = 0; distance < layers[child].length && distance < maxDistance; distance++) {
+                    while (merged.size() <= distance + 1) {
+                        merged.add(new BitSet());
+                    }
+                    merged.get(distance + 1).or(layers[child][distance]);
+                }
+            }
+            if (merged.isEmpty()) {
+                continue;
+            }
+
+            // Keeps each evidence only at its shortest distance
+            BitSet seen = new BitSet();
+            for (BitSet layer : merged) {
+                layer.andNot(seen);
+                seen.or(layer);
+            }
+            layers[concept] = merged.toArray(new BitSet[0]);
+        }
+
+        List<ACMConceptEvidence> result = new ArrayList<>();
+        for (int concept = 0; concept < layers.length; concept++) {
+            if (layers[concept] == null || taxonomy.getDepth(concept) < minDepth) {
+                continue;
+            }
+            Set<PhysicalEvidence> conceptEvidences = new HashSet<>();
+            double weight = 0.0;
+            for (int distance = 0; distance < layers[concept].length; distance++) {
+                BitSet layer = layers[concept][distance];
+                weight += weight(distance) * layer.cardinality();
+                for (int id = layer.nextSetBit(0); id >= 0; id = layer.nextSetBit(id + 1)) {
+                    conceptEvidences.add(physicalEvidences.get(id));
+                }
+            }
+            if (!conceptEvidences.isEmpty()) {
+                result.add(new ACMConceptEvidence(classification.getNodes().get(concept), conceptEvidences,
+                        layers[concept][0].cardinality(), weight));
+            }
+        }
+
+        // Stable, so ties keep the taxonomy order
+        result.sort(Comparator.comparingDouble(ACMConceptEvidence::getWeight).reversed());
+        return result;
+    }
+}
@@ -0,0 +1,125 @@
+package br.ufsc.ppgcc.experion.model.evidence.builder.engine;
+
+import br.ufsc.ppgcc.experion.extractor.evidence.PhysicalEvidence;
+import br.ufsc.ppgcc.experion.model.evidence.LogicalEvidence;
+import br.ufsc.ppgcc.experion.model.support.ACMClassification;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Incrementally builds logical evidences, classifying physical evidences as they arrive
+ * instead of requiring the whole set up front.
+ *
+ * Only the running per-concept logical evidences and the concepts of each added evidence are kept,
+ * so evidences can also be removed without classifying them again. Evidences may be added and removed
+ * from several threads; classification runs outside of the aggregator lock.
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ * @see ACMLogicalEvidenceBuilder#newAggregator()
+ */
+public class ACMLogicalEvidenceAggregator {
+
+    private final ACMLogicalEvidenceBuilder builder;
+    private final Map<ACMClassification.ACMClassificationNode, LogicalEvidence> logicalEvidences = new LinkedHashMap<>();
+    private final Map<PhysicalEvidence, List<ACMClassification.ACMClassificationNode>> evidenceConcepts = new HashMap<>();
+    private boolean finished = false;
+
+    ACMLogicalEvidenceAggregator(ACMLogicalEvidenceBuilder builder) {
+        this.builder = builder;
+    }
+
+    /**
+     * Classifies and adds the evidence; an evidence already added is ignored
+     */
+    public void add(PhysicalEvidence physicalEvidence) {
+        synchronized (this) {
+            checkNotFinished();
+            if (evidenceConcepts.containsKey(physicalEvidence)) {
+                return;
+            }
+        }
+        List<ACMClassification.ACMClassificationNode> concepts = builder.classify(physicalEvidence);
+
+        synchronized (this) {
+            checkNotFinished();
+            if (evidenceConcepts.putIfAbsent(physicalEvidence, concepts) != null) {
+                return;
+            }
+            for (ACMClassification.ACMClassificationNode concept : concepts) {
+                LogicalEvidence logicalEvidence = logicalEvidences.get(concept);
+                if (logicalEvidence == null) {
+                    logicalEvidence = new LogicalEvidence(concept.getFullTrueLabel());
+                    logicalEvidences.put(concept, logicalEvidence);
+                }
+                logicalEvidence.getPhysicalEvidences().add(physicalEvidence);
+            }
+        }
+    }
+
+    /**
+     * Removes the evidence from the logical evidences of its concepts, dropping those left without evidences
+     *
+     * @return false if the evidence was not added
+     */
+    public synchronized boolean remove(PhysicalEvidence physicalEvidence) {
+        checkNotFinished();
+        List<ACMClassification.ACMClassificationNode> concepts = evidenceConcepts.remove(physicalEvidence);
+        if (concepts == null) {
+            return false;
+        }
+        for (ACMClassification.ACMClassificationNode concept : concepts) {
+            LogicalEvidence logicalEvidence = logicalEvidences.get(concept);
+            if (logicalEvidence != null && logicalEvidence.getPhysicalEvidences().remove(physicalEvidence)
+                    && logicalEvidence.getPhysicalEvidences().isEmpty()) {
+                logicalEvidences.remove(concept);
+            }
+        }
+        return true;
+    }
+
+    private void checkNotFinished() {
+        if (finished) {
+            throw new IllegalStateException("Aggregation already finished");
+        }
+    }
+
+    public void addAll(Iterator<PhysicalEvidence> physicalEvidences) {
+        while (physicalEvidences.hasNext()) {
+            add(physicalEvidences.next());
+        }
+    }
+
+    public void addAll(Stream<PhysicalEvidence> physicalEvidences) {
+        physicalEvidences.forEach(this::add);
+    }
+
+    /**
+     * Number of physical evidences added and not removed so far
+     */
+    public synchronized long getEvidenceCount() {
+        return evidenceConcepts.size();
+    }
+
+    /**
+     * Copy of the logical evidences built so far; the aggregation can continue afterwards
+     */
+    public synchronized Set<LogicalEvidence> snapshot() {
+        Set<LogicalEvidence> snapshot = new HashSet<>();
+        for (Map.Entry<ACMClassification.ACMClassificationNode, LogicalEvidence> entry : logicalEvidences.entrySet()) {
+            LogicalEvidence logicalEvidence = new LogicalEvidence(entry.getKey().getFullTrueLabel());
+            logicalEvidence.getPhysicalEvidences().addAll(entry.getValue().getPhysicalEvidences());
+            snapshot.add(logicalEvidence);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Ends the aggregation and returns the logical evidences, as {@link ACMLogicalEvidenceBuilder#getLogicalEvidences(Set)}
+     */
+    public synchronized Set<LogicalEvidence> finish() {
+        finished = true;
+        return new HashSet<>(logicalEvidences.values());
+    }
+}
@@ -3,11 +3,22 @@ package br.ufsc.ppgcc.experion.model.evidence.builder.engine;
 import br.ufsc.ppgcc.experion.extractor.evidence.PhysicalEvidence;
 import br.ufsc.ppgcc.experion.model.evidence.LogicalEvidence;
 import br.ufsc.ppgcc.experion.model.support.ACMClassification;
-import org.jdom2.JDOMException;
-import org.tartarus.snowball.ext.PorterStemmer;
+import br.ufsc.ppgcc.experion.model.support.ACMClassificationRegistry;
+import br.ufsc.ppgcc.experion.model.support.ACMCounter;
+import br.ufsc.ppgcc.experion.model.support.ACMHistogram;
+import br.ufsc.ppgcc.experion.model.support.ACMMetrics;
+import br.ufsc.ppgcc.experion.model.support.ACMMultilingualClassification;
+import br.ufsc.ppgcc.experion.model.support.ACMTermStatistics;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Evidence builder using the ACM classification system
@@ -17,24 +28,57 @@ import java.util.*;
  */
 public class ACMLogicalEvidenceBuilder implements LogicalEvidenceBuilderEngine {
 
-    private ACMClassification classifier = new ACMClassification();
-    private ACMClassification classifierPT = new ACMClassification();
+    private final ACMMultilingualClassification classifications;
+    private ACMClassificationCache resultCache;
+    private volatile long cachedVersion;
+    private ACMResultStore resultStore;
+    private volatile BatchMetrics metrics;
 
+    /**
+     * Metrics resolved once, so batches do not look them up by name
+     */
+    private static class BatchMetrics {
+        private final ACMHistogram batchTime;
+        private final ACMHistogram batchEvidences;
+        private final ACMHistogram batchConcepts;
+        private final ACMCounter evidences;
 
+        private BatchMetrics(ACMMetrics metrics) {
+            batchTime = metrics.histogram("builder.batchNanos");
+            batchEvidences = metrics.histogram("builder.batchEvidences");
+            batchConcepts = metrics.histogram("builder.batchConcepts");
+            evidences = metrics.counter("builder.evidences");
+        }
 
-    public  Map<ACMClassification.ACMClassificationNode, List<PhysicalEvidence>> buildFor(Set<PhysicalEvidence> evidences) {
+        private void record(long start, int evidenceCount, int conceptCount) {
+            batchTime.record(System.nanoTime() - start);
+            batchEvidences.record(evidenceCount);
+            batchConcepts.record(conceptCount);
+            evidences.add(evidenceCount);
+        }
+    }
 
-        Map<ACMClassification.ACMClassificationNode, List<PhysicalEvidence>> map = new HashMap<>();
+    public  Map<ACMClassification.ACMClassificationNode, List<PhysicalEvidence>> buildFor(Set<PhysicalEvidence> evidences) {
+        return buildFor(evidences, classifications.current());
+    }
 
-        for (PhysicalEvidence physicalEvidence : evidences) {
+    /**
+     * Classifies all evidences of the call with the classifications of a single version, so a reload
+     * does not take effect in the middle of the call
+     */
+    private Map<ACMClassification.ACMClassificationNode, List<PhysicalEvidence>> buildFor(Set<PhysicalEvidence> evidences,
+                                                                                       ACMMultilingualClassification.Version version) {
+        BatchMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        checkVersion(version);
 
-            List<ACMClassification.ACMClassificationNode> concepts;
+        Map<ACMClassification.ACMClassificationNode, List<PhysicalEvidence>> map = new HashMap<>();
 
-            if (physicalEvidence.getLanguage().equals("pt")) {
-                concepts = classifierPT.getTrueLabel(physicalEvidence.getKeywords());
-            } else {
-                concepts = classifier.getTrueLabel(physicalEvidence.getKeywords());
-            }
+        List<PhysicalEvidence> physicalEvidences = new ArrayList<>(evidences);
+        List<Classified> classified = classifyAll(physicalEvidences, version);
+        for (int i = 0; i < physicalEvidences.size(); i++) {
+            PhysicalEvidence physicalEvidence = physicalEvidences.get(i);
+            List<ACMClassification.ACMClassificationNode> concepts = classified.get(i).concepts;
 
             for (ACMClassification.ACMClassificationNode concept : concepts) {
                 List<PhysicalEvidence> associatedEvidences = map.get(concept);
@@ -46,25 +90,327 @@ public class ACMLogicalEvidenceBuilder implements LogicalEvidenceBuilderEngine {
             }
         }
 
+        if (metrics != null) {
+            metrics.record(start, evidences.size(), map.size());
+        }
         return map;
     }
 
-    public ACMLogicalEvidenceBuilder() {
+    /**
+     * Same as {@link #buildFor(Set)}, but classifies the evidences in parallel using the given pool
+     */
+    public Map<ACMClassification.ACMClassificationNode, List<PhysicalEvidence>> buildFor(Set<PhysicalEvidence> evidences, ForkJoinPool pool) {
+        BatchMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        ACMMultilingualClassification.Version version = classifications.current();
+        checkVersion(version);
+
+        List<PhysicalEvidence> physicalEvidences = new ArrayList<>(evidences);
+        Classified[] classified = new Classified[physicalEvidences.size()];
+        // A parallel stream started from a task runs in the pool of that task
+        Map<ACMClassification.ACMClassificationNode, List<PhysicalEvidence>> map = pool.submit(() -> IntStream.range(0, classified.length)
+                .parallel().boxed()
+                .flatMap(i -> {
+                    classified[i] = classify(physicalEvidences.get(i), version);
+                    return classified[i].concepts.stream()
+                            .map(concept -> new AbstractMap.SimpleImmutableEntry<>(concept, physicalEvidences.get(i)));
+                })
+                .collect(Collectors.groupingByConcurrent(Map.Entry::getKey,
+                        Collectors.mapping(Map.Entry::getValue, Collectors.<PhysicalEvidence>toList()))))
+                .join();
+        observe(Arrays.asList(classified));
+        flushResultStore();
+
+        if (metrics != null) {
+            metrics.record(start, evidences.size(), map.size());
+        }
+        return map;
+    }
+
+    /**
+     * Starts an incremental aggregation, for evidences that should be classified as they arrive
+     */
+    public ACMLogicalEvidenceAggregator newAggregator() {
+        return new ACMLogicalEvidenceAggregator(this);
+    }
+
+    List<ACMClassification.ACMClassificationNode> classify(PhysicalEvidence physicalEvidence) {
+        ACMMultilingualClassification.Version version = classifications.current();
+        checkVersion(version);
+        Classified classified = classify(physicalEvidence, version);
+        observe(Collections.singletonList(classified));
+        return classified.concepts;
+    }
+
+    /**
+     * Clears the result cache once a call uses a newer version, so cached concepts of the previous
+     * version are not returned by new calls
+     */
+    private void checkVersion(ACMMultilingualClassification.Version version) {
+        if (version.getNumber() > cachedVersion) {
+            synchronized (this) {
+                if (version.getNumber() > cachedVersion) {
+                    if (resultCache != null) {
+                        resultCache.clear();
+                    }
+                    cachedVersion = version.getNumber();
+                }
+            }
+        }
+    }
+
+    /**
+     * Concepts of an evidence, with its keywords analyzed once for the result store, the result cache
+     * and the corpus statistics
+     */
+    private static final class Classified {
+        private final ACMClassification classification;
+        private Set<String> terms;
+        private String key;
+        private List<ACMClassification.ACMClassificationNode> concepts;
+
+        private Classified(ACMClassification classification) {
+            this.classification = classification;
+        }
+    }
+
+    /**
+     * Classification of the evidence, with its keywords analyzed when they are stored, cached or collected
+     */
+    private Classified analyze(PhysicalEvidence physicalEvidence, ACMMultilingualClassification.Version version, boolean keyed) {
+        Classified classified = new Classified(classificationFor(version, physicalEvidence.getLanguage()));
+        if (keyed || classifications.getCorpusStatistics(classified.classification.getLanguage()) != null) {
+            classified.terms = classified.classification.getAnalyzer().analyze(physicalEvidence.getKeywords());
+            classified.key = keyed ? ACMClassificationCache.termsKey(classified.classification, classified.terms) : null;
+        }
+        return classified;
+    }
+
+    private Classified classify(PhysicalEvidence physicalEvidence, ACMMultilingualClassification.Version version) {
+        ACMResultStore resultStore = this.resultStore;
+        ACMClassificationCache resultCache = this.resultCache;
+        Classified classified = analyze(physicalEvidence, version, resultStore != null || resultCache != null);
+        classified.concepts = resultStore == null ? null : resultStore.get(classified.classification, classified.key);
+        if (classified.concepts == null) {
+            classify(physicalEvidence, classified, resultStore, resultCache);
+        }
+        return classified;
+    }
+
+    /**
+     * Classifies an evidence not found in the result store, storing its concepts
+     */
+    private static void classify(PhysicalEvidence physicalEvidence, Classified classified, ACMResultStore resultStore,
+                                 ACMClassificationCache resultCache) {
+        classified.concepts = resultCache != null
+                ? resultCache.getTrueLabel(classified.classification, physicalEvidence.getKeywords(), classified.key)
+                : classified.classification.getTrueLabel(physicalEvidence.getKeywords());
+        if (resultStore != null) {
+            resultStore.put(classified.classification, classified.key, classified.concepts);
+        }
+    }
+
+    /**
+     * Classifies the evidences of each language in a single batch, or one by one when results are cached.
+     * Evidences found in the result store are not classified again, but all of them are added to the
+     * corpus statistics.
+     *
+     * @return the classification of each evidence, in the order of the evidences
+     */
+    private List<Classified> classifyAll(List<PhysicalEvidence> physicalEvidences, ACMMultilingualClassification.Version version) {
+        List<Classified> classified = new ArrayList<>(physicalEvidences.size());
+        ACMResultStore resultStore = this.resultStore;
+        ACMClassificationCache resultCache = this.resultCache;
+        Map<ACMClassification, List<Integer>> batches = new IdentityHashMap<>();
+        for (int i = 0; i < physicalEvidences.size(); i++) {
+            PhysicalEvidence physicalEvidence = physicalEvidences.get(i);
+            Classified evidence = analyze(physicalEvidence, version, resultStore != null || resultCache != null);
+            evidence.concepts = resultStore == null ? null : resultStore.get(evidence.classification, evidence.key);
+            if (evidence.concepts == null && resultCache != null) {
+                classify(physicalEvidence, evidence, resultStore, resultCache);
+            }
+            classified.add(evidence);
+            if (evidence.concepts == null) {
+                batches.computeIfAbsent(evidence.classification, key -> new ArrayList<>()).add(i);
+            }
+        }
+        for (Map.Entry<ACMClassification, List<Integer>> batch : batches.entrySet()) {
+            List<Collection<String>> keywords = new ArrayList<>(batch.getValue().size());
+            for (int i : batch.getValue()) {
+                keywords.add(physicalEvidences.get(i).getKeywords());
+            }
+            List<List<ACMClassification.ACMClassificationNode>> concepts = batch.getKey().getBatchTrueLabels(keywords);
+            for (int i = 0; i < concepts.size(); i++) {
+                Classified evidence = classified.get(batch.getValue().get(i));
+                evidence.concepts = concepts.get(i);
+                if (resultStore != null) {
+                    resultStore.put(evidence.classification, evidence.key, evidence.concepts);
+                }
+            }
+        }
+        observe(classified);
+        flushResultStore();
+        return classified;
+    }
+
+    private void flushResultStore() {
+        if (resultStore != null) {
+            try {
+                resultStore.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Adds the analyzed keywords of the evidences to the corpus statistics of their language, when they are
+     * collected, locking each statistics once per call. Every evidence of a call is added, whether it was
+     * classified, cached or found in the result store.
+     */
+    private void observe(List<Classified> classified) {
+        Map<ACMTermStatistics, List<Set<String>>> documents = new IdentityHashMap<>();
+        for (Classified evidence : classified) {
+            ACMTermStatistics statistics = evidence.terms == null ? null
+                    : classifications.getCorpusStatistics(evidence.classification.getLanguage());
+            if (statistics != null) {
+                documents.computeIfAbsent(statistics, key -> new ArrayList<>()).add(evidence.terms);
+            }
+        }
+        documents.forEach(ACMTermStatistics::addDocuments);
+    }
+
+    /**
+     * Classification of the language, or the english one for languages without a classification
+     */
+    private static ACMClassification classificationFor(ACMMultilingualClassification.Version version, String language) {
         try {
-            classifier.loadXML();
-            classifierPT.loadXMLInPTBR();
-        } catch (JDOMException e) {
-            e.printStackTrace();
+            return version.getOrDefault(language);
         } catch (IOException e) {
-            e.printStackTrace();
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Caches classification results by canonical keyword set; null disables the cache
+     */
+    public void setResultCache(ACMClassificationCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    public ACMClassificationCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Keeps the classification results in a store persisted across runs, so {@code buildFor} only classifies
+     * new or changed evidences; null disables the store. The store is not closed by the builder.
+     */
+    public void setResultStore(ACMResultStore resultStore) {
+        this.resultStore = resultStore;
+    }
+
+    public ACMResultStore getResultStore() {
+        return resultStore;
+    }
+
+    /**
+     * Records the time and size of each {@code buildFor} batch; {@link ACMMetrics#NOOP} disables the metrics.
+     * Classification metrics are set on the classifications themselves.
+     */
+    public void setMetrics(ACMMetrics metrics) {
+        this.metrics = metrics.isEnabled() ? new BatchMetrics(metrics) : null;
+    }
+
+    /**
+     * Creates a builder using the shared classifications from {@link ACMClassificationRegistry},
+     * each language being loaded on its first evidence
+     */
+    public ACMLogicalEvidenceBuilder() {
+        this(ACMClassificationRegistry.getDefault());
+    }
+
+    public ACMLogicalEvidenceBuilder(ACMClassification classifier, ACMClassification classifierPT) {
+        this.classifications = new ACMMultilingualClassification();
+        this.classifications.put("en", classifier);
+        this.classifications.put("pt", classifierPT);
+    }
+
+    /**
+     * Creates a builder classifying each evidence with the classification of its language
+     */
+    public ACMLogicalEvidenceBuilder(ACMMultilingualClassification classifications) {
+        this.classifications = classifications;
+    }
+
+    /**
+     * Creates a builder on the executor, with the shared english and portuguese classifications loaded
+     *
+     * @see #createAsync(ACMMultilingualClassification, Executor, String...)
+     */
+    public static CompletableFuture<ACMLogicalEvidenceBuilder> createAsync(Executor executor) {
+        return createAsync(ACMClassificationRegistry.getDefault(), executor, "en", "pt");
+    }
+
+    /**
+     * Creates a builder once the classifications of the languages are loaded, each one in a task of the executor
+     *
+     * @return the builder, or the failure loading a classification
+     */
+    public static CompletableFuture<ACMLogicalEvidenceBuilder> createAsync(ACMMultilingualClassification classifications,
+                                                                           Executor executor, String... languages) {
+        CompletableFuture<?>[] loads = new CompletableFuture<?>[languages.length];
+        for (int i = 0; i < languages.length; i++) {
+            String language = languages[i];
+            loads[i] = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return classifications.get(language);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
         }
+        return CompletableFuture.allOf(loads).thenApply(ignored -> new ACMLogicalEvidenceBuilder(classifications));
+    }
+
+    /**
+     * Same as {@link #buildFor(Set)}, in a task of the executor, which may run each call in a virtual thread.
+     * The evidences are copied before returning.
+     */
+    public CompletableFuture<Map<ACMClassification.ACMClassificationNode, List<PhysicalEvidence>>> buildForAsync(Set<PhysicalEvidence> evidences, Executor executor) {
+        Set<PhysicalEvidence> copy = new LinkedHashSet<>(evidences);
+        return CompletableFuture.supplyAsync(() -> buildFor(copy), executor);
+    }
+
+    /**
+     * Same as {@link #getLogicalEvidences(Set)}, in a task of the executor
+     */
+    public CompletableFuture<Set<LogicalEvidence>> getLogicalEvidencesAsync(Set<PhysicalEvidence> physicalEvidences, Executor executor) {
+        return buildForAsync(physicalEvidences, executor).thenApply(this::toLogicalEvidences);
     }
 
     public Set<LogicalEvidence> getLogicalEvidences(Set<PhysicalEvidence> physicalEvidences) {
-        Map<ACMClassification.ACMClassificationNode, List<PhysicalEvidence>> map = this.buildFor(physicalEvidences);
+        return toLogicalEvidences(this.buildFor(physicalEvidences));
+    }
+
+    /**
+     * Same as {@link #getLogicalEvidences(Set)}, but classifies the evidences in parallel using the given pool
+     */
+    public Set<LogicalEvidence> getLogicalEvidences(Set<PhysicalEvidence> physicalEvidences, ForkJoinPool pool) {
+        return toLogicalEvidences(this.buildFor(physicalEvidences, pool));
+    }
+
+    /**
+     * Classifies the evidences and rolls them up to all ancestors of their concepts, over the hierarchy
+     * and the labels of the english classification
+     */
+    public List<ACMConceptEvidence> getRolledUpEvidences(Set<PhysicalEvidence> physicalEvidences, ACMEvidenceRollup rollup) {
+        ACMMultilingualClassification.Version version = classifications.current();
+        return rollup.rollUp(classificationFor(version, ACMMultilingualClassification.DEFAULT_LANGUAGE),
+                this.buildFor(physicalEvidences, version));
+    }
 
+    private Set<LogicalEvidence> toLogicalEvidences(Map<ACMClassification.ACMClassificationNode, List<PhysicalEvidence>> map) {
         Set<LogicalEvidence> logicalEvidences = new HashSet<>();
 
         for (ACMClassification.ACMClassificationNode node : map.keySet()) {
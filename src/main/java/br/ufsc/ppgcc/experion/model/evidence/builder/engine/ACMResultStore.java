@@ -0,0 +1,269 @@
+package br.ufsc.ppgcc.experion.model.evidence.builder.engine;
+
+import br.ufsc.ppgcc.experion.model.support.ACMClassification;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Classification results persisted across runs, so a builder only classifies new or changed evidences.
+ *
+ * Results are keyed by a content hash of the canonical keywords of the evidence, as in
+ * {@link ACMClassificationCache}, and by the {@link ACMClassification#getFingerprint() fingerprint} of the
+ * classification, so a revised taxonomy or new term weights classify the evidences again. The file is an
+ * append-only log of results, indexed in memory when opened; a record left incomplete by a crash is
+ * discarded. {@link #compact()} rewrites the log with only the results used since it was opened.
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ * @see ACMLogicalEvidenceBuilder#setResultStore(ACMResultStore)
+ */
+public class ACMResultStore implements Closeable {
+
+    static final int MAGIC = 0x41434D52;
+    static final int VERSION = 1;
+
+    /**
+     * Content hash of the keywords, with the fingerprint of the classification
+     */
+    private static final class Key {
+        private final long high;
+        private final long low;
+        private final long fingerprint;
+
+        private Key(long high, long low, long fingerprint) {
+            this.high = high;
+            this.low = low;
+            this.fingerprint = fingerprint;
+        }
+
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return high == key.high && low == key.low && fingerprint == key.fingerprint;
+        }
+
+        public int hashCode() {
+            return Long.hashCode(high ^ fingerprint);
+        }
+    }
+
+    private final File file;
+    private final ConcurrentMap<Key, String[]> results = new ConcurrentHashMap<>();
+    private final Set<Key> used = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> conceptIds = new HashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private DataOutputStream out;
+
+    /**
+     * Opens the store, creating the file if needed
+     */
+    public ACMResultStore(File file) throws IOException {
+        this.file = file;
+        long valid = read();
+        try (RandomAccessFile log = new RandomAccessFile(file, "rw")) {
+            if (log.length() != valid) {
+                log.setLength(valid);
+            }
+        }
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+        if (valid == 0) {
+            writeHeader(out);
+        }
+    }
+
+    /**
+     * Indexes the complete records of the file
+     *
+     * @return the length of the file up to the last complete record
+     */
+    private long read() throws IOException {
+        if (!file.exists() || file.length() == 0) {
+            return 0;
+        }
+        long[] read = new long[1];
+        InputStream counted = new FilterInputStream(new BufferedInputStream(new FileInputStream(file))) {
+            public int read() throws IOException {
+                int b = super.read();
+                read[0] += b < 0 ? 0 : 1;
+                return b;
+            }
+
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                read[0] += Math.max(0, n);
+                return n;
+            }
+        };
+        try (DataInputStream in = new DataInputStream(counted)) {
+            try {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    throw new IOException("Not a classification result store: " + file);
+                }
+            } catch (EOFException e) {
+                // Header left incomplete
+                return 0;
+            }
+            long valid = read[0];
+            while (true) {
+                Key key;
+                String[] concepts;
+                try {
+                    key = new Key(in.readLong(), in.readLong(), in.readLong());
+                    concepts = new String[in.readUnsignedShort()];
+                    for (int i = 0; i < concepts.length; i++) {
+                        concepts[i] = conceptId(in.readUTF());
+                    }
+                } catch (EOFException e) {
+                    // End of the log, or a record left incomplete
+                    return valid;
+                }
+                results.put(key, concepts);
+                valid = read[0];
+            }
+        }
+    }
+
+    private static void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    /**
+     * Stored concepts of the keywords for the classification, or null if they were not classified by it
+     */
+    public List<ACMClassification.ACMClassificationNode> get(ACMClassification classifier, Collection<String> keywords) {
+        return get(classifier, ACMClassificationCache.key(classifier, keywords));
+    }
+
+    /**
+     * Same as {@link #get(ACMClassification, Collection)}, with the {@link ACMClassificationCache} key of the keywords
+     */
+    List<ACMClassification.ACMClassificationNode> get(ACMClassification classifier, String keywordsKey) {
+        Key key = key(classifier, keywordsKey);
+        String[] concepts = results.get(key);
+        if (concepts == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        used.add(key);
+
+        List<ACMClassification.ACMClassificationNode> nodes = new ArrayList<>(concepts.length);
+        for (String concept : concepts) {
+            nodes.add(classifier.getNodes().get(classifier.getTaxonomy().getConcept(concept)));
+        }
+        return nodes;
+    }
+
+    /**
+     * Stores the concepts the classification gave to the keywords
+     */
+    public void put(ACMClassification classifier, Collection<String> keywords, List<ACMClassification.ACMClassificationNode> nodes) {
+        put(classifier, ACMClassificationCache.key(classifier, keywords), nodes);
+    }
+
+    void put(ACMClassification classifier, String keywordsKey, List<ACMClassification.ACMClassificationNode> nodes) {
+        Key key = key(classifier, keywordsKey);
+        String[] concepts = new String[nodes.size()];
+        for (int i = 0; i < concepts.length; i++) {
+            concepts[i] = nodes.get(i).getId();
+        }
+        try {
+            // Under the lock, so compact sees both the result and its use
+            synchronized (this) {
+                used.add(key);
+                if (results.put(key, concepts) == null) {
+                    write(out, key, concepts);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(DataOutputStream out, Key key, String[] concepts) throws IOException {
+        out.writeLong(key.high);
+        out.writeLong(key.low);
+        out.writeLong(key.fingerprint);
+        out.writeShort(concepts.length);
+        for (String concept : concepts) {
+            out.writeUTF(concept);
+        }
+    }
+
+    private static Key key(ACMClassification classifier, String keywordsKey) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(keywordsKey.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer buffer = ByteBuffer.wrap(hash);
+            return new Key(buffer.getLong(), buffer.getLong(), classifier.getFingerprint());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private synchronized String conceptId(String id) {
+        String known = conceptIds.putIfAbsent(id, id);
+        return known != null ? known : id;
+    }
+
+    /**
+     * Writes the stored results to the file
+     */
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Rewrites the file with only the results read or stored since the store was opened, dropping the ones
+     * of evidences that are gone or were classified again
+     */
+    public synchronized void compact() throws IOException {
+        File compacted = new File(file.getPath() + ".compact");
+        try (DataOutputStream compactOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(compacted)))) {
+            writeHeader(compactOut);
+            for (Key key : used) {
+                String[] concepts = results.get(key);
+                if (concepts != null) {
+                    write(compactOut, key, concepts);
+                }
+            }
+        }
+        out.close();
+        Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        results.keySet().retainAll(used);
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+    }
+
+    public long size() {
+        return results.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    public String toString() {
+        return String.format("results=%d, hits=%d, misses=%d", size(), getHitCount(), getMissCount());
+    }
+}
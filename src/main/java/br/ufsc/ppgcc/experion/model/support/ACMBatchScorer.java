@@ -0,0 +1,231 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Scores many queries at once against the CSR term x node matrix of {@link ACMTermScorer}.
+ *
+ * Queries are a sparse query x term matrix, multiplied by the term x node matrix in blocks of
+ * {@link #BLOCK_SIZE} queries: the terms of a block are visited once, in ascending order, and the
+ * nodes of each term are read once for all queries of the block having it. The common terms and IDF
+ * sums of the block are accumulated in dense arrays, instead of intersecting the query with
+ * the labels of every candidate. Sums are accumulated in the same term order as
+ * {@link ACMTermScorer#score(int[], int)}, so scores and rankings are identical.
+ *
+ * Repeated queries of a batch are scored only once. Accumulators are taken from a shared pool instead
+ * of being kept per thread, so scoring from many short-lived (e.g. virtual) threads does not allocate them each time.
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public final class ACMBatchScorer {
+
+    static final int BLOCK_SIZE = 32;
+
+    /**
+     * Best nodes of each query of a batch, best first
+     */
+    public static final class Result {
+        private final int[] offsets;
+        private final int[] nodes;
+        private final double[] scores;
+
+        private Result(int[] offsets, int[] nodes, double[] scores) {
+            this.offsets = offsets;
+            this.nodes = nodes;
+            this.scores = scores;
+        }
+
+        /**
+         * Number of queries
+         */
+        public int size() {
+            return offsets.length - 1;
+        }
+
+        /**
+         * Number of nodes selected for the query
+         */
+        public int count(int query) {
+            return offsets[query + 1] - offsets[query];
+        }
+
+        /**
+         * Node index, in taxonomy order, of the i-th best node of the query
+         */
+        public int node(int query, int i) {
+            return nodes[offsets[query] + i];
+        }
+
+        public double score(int query, int i) {
+            return scores[offsets[query] + i];
+        }
+    }
+
+    /**
+     * Accumulators of a block of queries, reused by the following batches
+     */
+    private static final class Workspace {
+        private final int[] common;
+        private final double[] idfSums;
+        private final int[][] touched;
+        private final int[] touchedSizes = new int[BLOCK_SIZE];
+        private final double[] scores;
+
+        private Workspace(int nodeCount) {
+            this.common = new int[BLOCK_SIZE * nodeCount];
+            this.idfSums = new double[BLOCK_SIZE * nodeCount];
+            this.touched = new int[BLOCK_SIZE][nodeCount];
+            this.scores = new double[nodeCount];
+        }
+    }
+
+    /**
+     * Query used as a key, to score repeated queries once
+     */
+    private static final class Query {
+        private final int[] terms;
+        private final int hash;
+
+        private Query(int[] terms) {
+            this.terms = terms;
+            this.hash = Arrays.hashCode(terms);
+        }
+
+        public boolean equals(Object other) {
+            return other instanceof Query && Arrays.equals(terms, ((Query) other).terms);
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final int[] postingOffsets;
+    private final int[] postings;
+    private final double[] idfs;
+    private final int[] levels;
+    private final Queue<Workspace> workspaces = new ConcurrentLinkedQueue<>();
+
+    ACMBatchScorer(int[] postingOffsets, int[] postings, double[] idfs, int[] levels) {
+        this.postingOffsets = postingOffsets;
+        this.postings = postings;
+        this.idfs = idfs;
+        this.levels = levels;
+    }
+
+    /**
+     * Selects the k best nodes of each query, with a positive score of at least minScore
+     *
+     * @param queries sorted term ids of each query, as returned by {@link ACMTermScorer#encode(Collection)}
+     * @return the best nodes of each query, in the order of the queries
+     */
+    public Result score(int[][] queries, int k, double minScore) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+
+        Map<Query, Integer> distinctIds = new HashMap<>();
+        List<int[]> distinct = new ArrayList<>();
+        int[] queryIds = new int[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            Integer id = distinctIds.putIfAbsent(new Query(queries[i]), distinct.size());
+            if (id == null) {
+                id = distinct.size();
+                distinct.add(queries[i]);
+            }
+            queryIds[i] = id;
+        }
+
+        int[][] selectedNodes = new int[distinct.size()][];
+        double[][] selectedScores = new double[distinct.size()][];
+        Workspace workspace = workspaces.poll();
+        if (workspace == null) {
+            workspace = new Workspace(levels.length);
+        }
+        for (int from = 0; from < distinct.size(); from += BLOCK_SIZE) {
+            scoreBlock(workspace, distinct, from, Math.min(from + BLOCK_SIZE, distinct.size()), k, minScore,
+                    selectedNodes, selectedScores);
+        }
+        // Only returned once all blocks cleared their accumulators
+        workspaces.offer(workspace);
+
+        int[] offsets = new int[queries.length + 1];
+        for (int i = 0; i < queries.length; i++) {
+            offsets[i + 1] = offsets[i] + selectedNodes[queryIds[i]].length;
+        }
+        int[] nodes = new int[offsets[queries.length]];
+        double[] scores = new double[offsets[queries.length]];
+        for (int i = 0; i < queries.length; i++) {
+            System.arraycopy(selectedNodes[queryIds[i]], 0, nodes, offsets[i], offsets[i + 1] - offsets[i]);
+            System.arraycopy(selectedScores[queryIds[i]], 0, scores, offsets[i], offsets[i + 1] - offsets[i]);
+        }
+        return new Result(offsets, nodes, scores);
+    }
+
+    private void scoreBlock(Workspace workspace, List<int[]> queries, int from, int to, int k, double minScore,
+                            int[][] selectedNodes, double[][] selectedScores) {
+        int nodeCount = levels.length;
+
+        // Transposed block: (term, query) pairs sorted by term, then by query
+        int pairs = 0;
+        for (int query = from; query < to; query++) {
+            pairs += queries.get(query).length;
+        }
+        long[] termQueries = new long[pairs];
+        pairs = 0;
+        for (int query = from; query < to; query++) {
+            for (int term : queries.get(query)) {
+                termQueries[pairs++] = ((long) term << 32) | (query - from);
+            }
+        }
+        Arrays.sort(termQueries);
+
+        int[] common = workspace.common;
+        double[] idfSums = workspace.idfSums;
+        for (int i = 0; i < pairs; ) {
+            int term = (int) (termQueries[i] >>> 32);
+            int start = postingOffsets[term];
+            int end = postingOffsets[term + 1];
+            double idf = idfs[term];
+            for (; i < pairs && (int) (termQueries[i] >>> 32) == term; i++) {
+                int query = (int) termQueries[i];
+                int base = query * nodeCount;
+                int[] touched = workspace.touched[query];
+                for (int posting = start; posting < end; posting++) {
+                    int node = postings[posting];
+                    if (common[base + node]++ == 0) {
+                        touched[workspace.touchedSizes[query]++] = node;
+                    }
+                    idfSums[base + node] += idf;
+                }
+            }
+        }
+
+        double[] scores = workspace.scores;
+        for (int query = 0; query < to - from; query++) {
+            int base = query * nodeCount;
+            int[] touched = workspace.touched[query];
+            int size = workspace.touchedSizes[query];
+            for (int i = 0; i < size; i++) {
+                int node = touched[i];
+                int nodeCommon = common[base + node];
+                scores[i] = levels[node] * nodeCommon * (idfSums[base + node] * nodeCommon);
+                common[base + node] = 0;
+                idfSums[base + node] = 0.0;
+            }
+            workspace.touchedSizes[query] = 0;
+
+            int[] top = ACMTermScorer.top(touched, scores, size, k, minScore);
+            int[] nodes = new int[top.length];
+            double[] topScores = new double[top.length];
+            for (int i = 0; i < top.length; i++) {
+                nodes[i] = touched[top[i]];
+                topScores[i] = scores[top[i]];
+            }
+            selectedNodes[from + query] = nodes;
+            selectedScores[from + query] = topScores;
+        }
+    }
+}
@@ -1,35 +1,15 @@
 package br.ufsc.ppgcc.experion.model.support;
 
-import com.google.cloud.translate.Translate;
-import com.google.cloud.translate.TranslateOptions;
-import com.google.cloud.translate.Translation;
-import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.lucene.analysis.TokenStream;
-import org.apache.lucene.analysis.core.StopFilter;
-import org.apache.lucene.analysis.en.EnglishAnalyzer;
-import org.apache.lucene.analysis.pt.PortugueseAnalyzer;
-import org.apache.lucene.analysis.standard.StandardTokenizer;
-import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
-import org.apache.lucene.analysis.util.CharArraySet;
-import org.apache.lucene.util.Version;
-import org.jdom2.Document;
-import org.jdom2.Element;
 import org.jdom2.JDOMException;
-import org.jdom2.Namespace;
-import org.jdom2.filter.Filters;
-import org.jdom2.input.SAXBuilder;
-import org.jdom2.xpath.XPathExpression;
-import org.jdom2.xpath.XPathFactory;
-import org.jgrapht.graph.DefaultDirectedGraph;
-import org.jgrapht.graph.DefaultEdge;
-import org.jgrapht.traverse.DepthFirstIterator;
-import org.tartarus.snowball.ext.PorterStemmer;
-import org.tartarus.snowball.ext.PortugueseStemmer;
 
+import javax.xml.stream.XMLStreamException;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -41,55 +21,209 @@ import java.util.stream.Collectors;
  */
 public class ACMClassification {
 
-    Translate translate;
-    private ACMClassificationNode root;
-    private String language;
+    private TranslationProvider translationProvider;
+    private TranslationStore translationStore;
+    private ACMTermStatistics corpusStatistics;
+    private double corpusWeight;
+    private int fuzzyDistance;
+    private int fuzzyCandidates;
+    ACMClassificationNode root;
+    String language;
 
     private boolean debug = false;
+    private volatile boolean frozen = false;
+    private volatile ClassificationMetrics metrics;
+    private volatile long fingerprint;
+
+    /**
+     * Provider for labels missing from the translation store; Google Translate by default
+     */
+    public void setTranslationProvider(TranslationProvider translationProvider) {
+        checkNotFrozen();
+        this.translationProvider = translationProvider;
+    }
+
+    /**
+     * Store of the label translations. By default, the bundled translations for portuguese, with new ones
+     * appended to {@link TranslationStore#defaultFilePTBR()}, and an in-memory store for other languages
+     */
+    public void setTranslationStore(TranslationStore translationStore) {
+        checkNotFrozen();
+        this.translationStore = translationStore;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
 
     public boolean isDebug() {
         return debug;
     }
 
     public void setDebug(boolean debug) {
+        checkNotFrozen();
         this.debug = debug;
     }
 
+    /**
+     * Blends the IDF of the terms in a corpus into the IDF computed from the labels, when the classification
+     * is loaded; null keeps the IDF of the labels only
+     *
+     * @param weight share of the corpus IDF, from 0 to 1
+     */
+    public void setCorpusStatistics(ACMTermStatistics corpusStatistics, double weight) {
+        checkNotFrozen();
+        if (weight < 0 || weight > 1) {
+            throw new IllegalArgumentException("Weight must be between 0 and 1: " + weight);
+        }
+        this.corpusStatistics = corpusStatistics;
+        this.corpusWeight = weight;
+    }
+
+    /**
+     * Resolves the words missing from the labels to their nearest terms before scoring, such as misspelled or
+     * concatenated keywords; a distance of 0 disables it
+     *
+     * @param maxDistance   edit distance allowed between a word and a term
+     * @param maxCandidates terms compared with each word, which bounds the time spent on it
+     * @see ACMFuzzyTermIndex
+     */
+    public void setFuzzyMatching(int maxDistance, int maxCandidates) {
+        checkNotFrozen();
+        if (maxDistance < 0 || maxCandidates <= 0) {
+            throw new IllegalArgumentException("Invalid fuzzy matching: " + maxDistance + ", " + maxCandidates);
+        }
+        this.fuzzyDistance = maxDistance;
+        this.fuzzyCandidates = maxCandidates;
+        if (scorer != null) {
+            buildFuzzyIndex();
+        }
+    }
+
+    public ACMFuzzyTermIndex getFuzzyIndex() {
+        return fuzzyIndex;
+    }
+
+    /**
+     * Records the latency of each classification stage, the query and candidate sizes and the empty results.
+     * May also be set on a shared classification; {@link ACMMetrics#NOOP} disables the metrics.
+     */
+    public void setMetrics(ACMMetrics metrics) {
+        this.metrics = metrics.isEnabled() ? new ClassificationMetrics(metrics) : null;
+    }
+
+    /**
+     * Metrics resolved once, so classification does not look them up by name
+     */
+    private static class ClassificationMetrics {
+        private final ACMHistogram stopWords;
+        private final ACMHistogram stemming;
+        private final ACMHistogram scoring;
+        private final ACMHistogram selection;
+        private final ACMHistogram total;
+        private final ACMHistogram queryTerms;
+        private final ACMHistogram candidates;
+        private final ACMCounter requests;
+        private final ACMCounter emptyResults;
+        private final ACMHistogram batch;
+        private final ACMHistogram batchSize;
+
+        private ClassificationMetrics(ACMMetrics metrics) {
+            stopWords = metrics.histogram("classification.stopWordsNanos");
+            stemming = metrics.histogram("classification.stemmingNanos");
+            scoring = metrics.histogram("classification.scoringNanos");
+            selection = metrics.histogram("classification.selectionNanos");
+            total = metrics.histogram("classification.totalNanos");
+            queryTerms = metrics.histogram("classification.queryTerms");
+            candidates = metrics.histogram("classification.candidates");
+            requests = metrics.counter("classification.requests");
+            emptyResults = metrics.counter("classification.emptyResults");
+            batch = metrics.histogram("classification.batchNanos");
+            batchSize = metrics.histogram("classification.batchSize");
+        }
+    }
+
+    private static long now(ClassificationMetrics metrics) {
+        return metrics == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Makes this classification read-only, so it can be shared between threads
+     *
+     * @see ACMClassificationRegistry
+     */
+    void freeze() {
+        this.frozen = true;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Shared ACM Classification can not be modified");
+        }
+    }
+
     public void printLabels() {
-        for (ACMClassificationNode node : this.graph.vertexSet()) {
+        for (ACMClassificationNode node : this.nodes) {
             System.out.println(node);
         }
 
     }
 
+    /**
+     * A concept of the classification. Once in a taxonomy, its labels and full labels are read from it.
+     */
     public static class ACMClassificationNode implements Serializable {
-        private DefaultDirectedGraph<ACMClassificationNode, DefaultEdge> graph;
         private String id;
         private String trueLabel;
         private String fullTrueLabel;
-        private String label;
-        private Set<String> labels = new HashSet<>();
+        private Set<String> labels;
+        // Only set on nodes read from a stream, as they have no taxonomy
         private Set<String> fullLabels;
-        private Integer level = null;
+        private int level = 1;
+        private transient ACMTaxonomy taxonomy;
+        int index;
+
+        /**
+         * Takes the labels, full labels and level of the concept from the taxonomy instead of walking up its parents
+         */
+        void attach(ACMTaxonomy taxonomy, int concept) {
+            this.taxonomy = taxonomy;
+            this.index = concept;
+            this.level = taxonomy.getDepth(concept);
+            this.labels = taxonomy.getLabels(concept);
+            this.fullTrueLabel = null;
+        }
 
         public int getLevel() {
-            if (level == null) {
-                calculateLabels();
-            }
             return level;
         }
 
 
 
         public String toString() {
-            return String.format("(%s) [%s] => %s ( %s )", this.trueLabel, this.getFullTrueLabel(), StringUtils.join(this.fullLabels, ","), StringUtils.join(this.labels, ","));
+            return String.format("(%s) [%s] => %s ( %s )", this.trueLabel, this.getFullTrueLabel(), StringUtils.join(this.getFullLabels(), ","), StringUtils.join(this.labels, ","));
         }
 
-        public ACMClassificationNode(DefaultDirectedGraph<ACMClassificationNode, DefaultEdge> graph, String id, String trueLabel, Collection<String> labels) {
-            this.graph = graph;
+        public String getId() {
+            return id;
+        }
+
+        public String getTrueLabel() {
+            return trueLabel;
+        }
+
+        public Set<String> getLabels() {
+            return labels;
+        }
+
+        public ACMClassificationNode(String id, String trueLabel, Collection<String> labels) {
             this.id = id;
             this.trueLabel = trueLabel;
-            this.labels.addAll(labels);
+            this.labels = Collections.unmodifiableSet(new HashSet<>(labels));
         }
 
         @Override
@@ -106,112 +240,295 @@ public class ACMClassification {
         }
 
         public Set<String> getFullWords() {
-            if (fullLabels == null) {
-                calculateLabels();
-            }
-
-            return fullLabels;
+            return getFullLabels();
         }
 
+        /**
+         * Built on first use, as most nodes are never part of a result
+         */
         public String getFullTrueLabel() {
-            if (fullLabels == null) {
-                calculateLabels();
+            String fullTrueLabel = this.fullTrueLabel;
+            if (fullTrueLabel == null) {
+                fullTrueLabel = taxonomy != null ? taxonomy.getFullTrueLabel(index) : trueLabel;
+                this.fullTrueLabel = fullTrueLabel;
             }
             return fullTrueLabel;
         }
 
+        /**
+         * Labels of the node and of its primary ancestors; only its own labels for a node created outside of a taxonomy
+         */
         public Set<String> getFullLabels() {
-            if (fullLabels == null) {
-                calculateLabels();
-            }
-            return fullLabels;
-        }
-
-        private void calculateLabels() {
-            fullTrueLabel = this.trueLabel;
-            fullLabels = new HashSet<>();
-            ACMClassificationNode node = this;
-            level = 1;
-
-            while (node != null) {
-                fullLabels.addAll(node.labels);
-                Set<DefaultEdge> parentNodes = graph.incomingEdgesOf(node);
-                if (parentNodes.isEmpty()) {
-                    break;
-                } else {
-                    node = graph.getEdgeSource(parentNodes.iterator().next());
-                    level++;
-                    fullTrueLabel = node.trueLabel + " -> " + fullTrueLabel;
-                }
+            if (taxonomy != null) {
+                return taxonomy.getFullLabels(index);
             }
+            return fullLabels != null ? fullLabels : labels;
+        }
+
+        /**
+         * Serializes the labels, full labels and full true label themselves, as the taxonomy is not serialized
+         */
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            ObjectOutputStream.PutField fields = out.putFields();
+            fields.put("id", id);
+            fields.put("trueLabel", trueLabel);
+            fields.put("fullTrueLabel", getFullTrueLabel());
+            fields.put("labels", Collections.unmodifiableSet(new HashSet<>(labels)));
+            fields.put("fullLabels", Collections.unmodifiableSet(new HashSet<>(getFullLabels())));
+            fields.put("level", level);
+            fields.put("index", index);
+            out.writeFields();
         }
     }
 
-    private InputStream classificationXML = this.getClass().getResourceAsStream("/acm.xml");
-    private DefaultDirectedGraph<ACMClassificationNode, DefaultEdge> graph = new DefaultDirectedGraph<>(DefaultEdge.class);
+    /**
+     * A classification node with its similarity to the classified words
+     */
+    public static class ScoredNode {
+        private final ACMClassificationNode node;
+        private final double score;
+
+        public ScoredNode(ACMClassificationNode node, double score) {
+            this.node = node;
+            this.score = score;
+        }
+
+        public ACMClassificationNode getNode() {
+            return node;
+        }
 
+        public double getScore() {
+            return score;
+        }
+
+        public String toString() {
+            return String.format("%s => %f", node.getFullTrueLabel(), score);
+        }
+    }
+
+    /**
+     * Loads the classification in english, using the bundled snapshot when it is up to date
+     */
     public void loadXML() throws JDOMException, IOException {
-        this.language = "en";
-        SAXBuilder jdomBuilder = new SAXBuilder();
-        Document jdomDocument = jdomBuilder.build(classificationXML);
-        XPathFactory xFactory = XPathFactory.instance();
-        XPathExpression<Element> expr = xFactory.compile("//skos:Concept", Filters.element(), null,
-                Namespace.getNamespace("skos", "http://www.w3.org/2004/02/skos/core#"));
-
-        List<Element> concepts = expr.evaluate(jdomDocument);
-        Map<String, ACMClassificationNode> nodeList = new HashMap<>();
-
-        for (Element linkElement : concepts) { // or skos:altLabel]
-            XPathExpression<Element> exprLabels = xFactory.compile("skos:prefLabel", Filters.element(), null,
-                    Namespace.getNamespace("skos", "http://www.w3.org/2004/02/skos/core#"));
-            List<Element> labels = exprLabels.evaluate(linkElement);
-            Set<String> labelList = new HashSet<>();
-            String trueLabel = "";
-            for (Element label : labels) {
-                trueLabel = label.getValue().toLowerCase();
-                labelList.addAll(Arrays.asList(label.getValue().toLowerCase().split(" ")));
-            }
+        checkNotFrozen();
+        if (!loadBundledSnapshot("en")) {
+            parseXML();
+        }
+    }
 
-            exprLabels = xFactory.compile("skos:altLabel", Filters.element(), null,
-                    Namespace.getNamespace("skos", "http://www.w3.org/2004/02/skos/core#"));
-            labels = exprLabels.evaluate(linkElement);
-            for (Element label : labels) {
-                labelList.addAll(Arrays.asList(label.getValue().toLowerCase().split(" ")));
-            }
+    /**
+     * Loads the classification translated to portuguese, using the bundled snapshot when it is up to date.
+     * The snapshot has the bundled translations only, so it is skipped when a translation store or provider
+     * was set, or when translations were stored in {@link TranslationStore#defaultFilePTBR()}.
+     */
+    public void loadXMLInPTBR() throws JDOMException, IOException, ClassNotFoundException {
+        checkNotFrozen();
+        boolean extraTranslations = translationStore != null || translationProvider != null || hasStoredTranslationsPTBR();
+        if (extraTranslations || !loadBundledSnapshot("pt")) {
+            parseXMLInPTBR();
+        }
+    }
 
+    private static boolean hasStoredTranslationsPTBR() {
+        File translations = TranslationStore.defaultFilePTBR();
+        return translations.isFile() && translations.length() > 0;
+    }
 
-            ACMClassificationNode node = new ACMClassificationNode(graph, linkElement.getAttributeValue("about", Namespace.getNamespace("rdf", "http://www.w3.org/1999/02/22-rdf-syntax-ns#")), trueLabel, labelList);
-            if (graph.vertexSet().isEmpty()) {
-                root = node;
-            }
-            graph.addVertex(node);
-            nodeList.put(node.id, node);
+    /**
+     * Loads the classification from another SKOS file, such as a newer revision of the ACM CCS
+     * or a custom vocabulary, with english labels
+     */
+    public void loadSKOS(InputStream input) throws JDOMException, IOException {
+        checkNotFrozen();
+        parseSKOS(input, "en");
+    }
+
+    /**
+     * Loads the classification from another SKOS file, translating its labels to portuguese
+     */
+    public void loadSKOSInPTBR(InputStream input) throws JDOMException, IOException {
+        checkNotFrozen();
+        parseSKOS(input, "pt");
+    }
+
+    /**
+     * Loads the classification from a SKOS file, translating its labels to the language, which is
+     * analyzed with {@link ACMTextAnalyzer#forLanguage(String)}
+     */
+    public void loadSKOS(InputStream input, String language) throws JDOMException, IOException {
+        checkNotFrozen();
+        parseSKOS(input, language);
+    }
+
+    /**
+     * Writes the loaded classification as a binary snapshot
+     *
+     * @see ACMClassificationSnapshot
+     */
+    public void saveSnapshot(OutputStream output) throws IOException {
+        ACMClassificationSnapshot.write(this, output);
+    }
+
+    /**
+     * Loads the classification from a binary snapshot
+     *
+     * @return false if the snapshot was written for another format version, language or source files
+     */
+    public boolean loadSnapshot(InputStream input, String language) throws IOException {
+        checkNotFrozen();
+        return ACMClassificationSnapshot.read(this, input, language);
+    }
+
+    private boolean loadBundledSnapshot(String language) {
+        InputStream snapshot = this.getClass().getResourceAsStream(ACMClassificationSnapshot.resourceName(language));
+        if (snapshot == null) {
+            return false;
+        }
+        try (InputStream input = snapshot) {
+            return loadSnapshot(input, language);
+        } catch (IOException e) {
+            // Ignore - invalid snapshot, falls back to the XML
+            return false;
         }
+    }
 
-        for (Element linkElement : concepts) { // or skos:altLabel]
-            XPathExpression<Element> exprParent = xFactory.compile("skos:broader", Filters.element(), null, Namespace.getNamespace("skos", "http://www.w3.org/2004/02/skos/core#"));
-            List<Element> parents = exprParent.evaluate(linkElement);
+    void parseXML() throws JDOMException, IOException {
+        try (InputStream classificationXML = this.getClass().getResourceAsStream("/acm.xml")) {
+            parseSKOS(classificationXML, "en");
+        }
+    }
 
-            for (Element parent : parents) {
-                graph.addEdge(nodeList.get(parent.getAttributeValue("resource", Namespace.getNamespace("rdf", "http://www.w3.org/1999/02/22-rdf-syntax-ns#"))), nodeList.get(linkElement.getAttributeValue("about", Namespace.getNamespace("rdf", "http://www.w3.org/1999/02/22-rdf-syntax-ns#"))));
-            }
+    void parseXMLInPTBR() throws JDOMException, IOException, ClassNotFoundException {
+        try (InputStream classificationXML = this.getClass().getResourceAsStream("/acm.xml")) {
+            parseSKOS(classificationXML, "pt");
+        }
+    }
+
+    private void parseSKOS(InputStream input, String language) throws JDOMException, IOException {
+        List<SKOSConcept> sourceConcepts = new ArrayList<>();
+        ACMTaxonomy structure = readSKOS(input, sourceConcepts);
+        loadLabels(structure, sourceConcepts, language);
+    }
+
+    /**
+     * Reads the concepts of a SKOS file in a single streaming pass
+     *
+     * @param sourceConcepts receives the concepts, with their labels as in the file
+     * @return the hierarchy of the concepts, without labels
+     */
+    static ACMTaxonomy readSKOS(InputStream input, List<SKOSConcept> sourceConcepts) throws JDOMException {
+        ACMTaxonomy.Builder builder = new ACMTaxonomy.Builder();
+        try {
+            new SKOSReader().read(input, new SKOSReader.Handler() {
+                public void concept(String id, List<String> prefLabels, List<String> altLabels) {
+                    builder.addConcept(id, "", Collections.emptySet());
+                    sourceConcepts.add(new SKOSConcept(id, prefLabels, altLabels));
+                }
+
+                public void broader(String id, String broaderId) {
+                    builder.addBroader(id, broaderId);
+                }
+            });
+        } catch (XMLStreamException e) {
+            throw new JDOMException("Invalid SKOS file", e);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Loads the classification over the hierarchy, with the labels of the concepts in the language.
+     * Labels in other languages than english are translated, all of them in batch.
+     *
+     * @param sourceConcepts concepts of the hierarchy, in order, with their english labels
+     */
+    void loadLabels(ACMTaxonomy structure, List<SKOSConcept> sourceConcepts, String language) throws IOException {
+        this.language = language;
+        TranslationStore cache = language.equals("en") ? null : translations(sourceConcepts, language);
+
+        List<ACMClassificationNode> concepts = new ArrayList<>(sourceConcepts.size());
+        List<String> trueLabels = new ArrayList<>(sourceConcepts.size());
+        List<Set<String>> labels = new ArrayList<>(sourceConcepts.size());
+        for (SKOSConcept sourceConcept : sourceConcepts) {
+            ACMClassificationNode node = newNode(sourceConcept.id,
+                    translated(cache, sourceConcept.prefLabels), translated(cache, sourceConcept.altLabels));
+            concepts.add(node);
+            trueLabels.add(node.trueLabel);
+            labels.add(node.labels);
         }
 
-        buildIDF();
+        buildTaxonomy(structure.withLabels(trueLabels, labels), concepts);
+        root = concepts.isEmpty() ? null : concepts.get(0);
+        buildIndex(concepts, buildIDF(concepts));
+    }
+
+    /**
+     * Concept read from a SKOS file, with its labels as in the file
+     */
+    static class SKOSConcept {
+        final String id;
+        final List<String> prefLabels;
+        final List<String> altLabels;
 
+        SKOSConcept(String id, List<String> prefLabels, List<String> altLabels) {
+            this.id = id;
+            this.prefLabels = prefLabels;
+            this.altLabels = altLabels;
+        }
     }
 
+    private static ACMClassificationNode newNode(String id, List<String> prefLabels, List<String> altLabels) {
+        Set<String> labelList = new HashSet<>();
+        String trueLabel = "";
+        for (String label : prefLabels) {
+            trueLabel = label.toLowerCase();
+            labelList.addAll(Arrays.asList(trueLabel.split(" ")));
+        }
+        for (String label : altLabels) {
+            labelList.addAll(Arrays.asList(label.toLowerCase().split(" ")));
+        }
 
-    Map<String,Double> idfs = new HashMap<>();
+        return new ACMClassificationNode(id, trueLabel, labelList);
+    }
+
+    ACMTaxonomy taxonomy;
 
-    private void buildIDF() throws IOException {
+    /**
+     * Sets the taxonomy with the full labels and levels of all nodes
+     *
+     * @param concepts nodes in the order of the taxonomy
+     */
+    void buildTaxonomy(ACMTaxonomy taxonomy, List<ACMClassificationNode> concepts) {
+        this.taxonomy = taxonomy;
+        for (int concept = 0; concept < concepts.size(); concept++) {
+            concepts.get(concept).attach(taxonomy, concept);
+        }
+    }
 
-        List<List<String>> lines = this.graph.vertexSet().stream().
+    /**
+     * Shares the structure of the taxonomy with another classification of the same hierarchy
+     */
+    void shareStructure(ACMTaxonomy structure) {
+        this.taxonomy = taxonomy.withStructureOf(structure);
+        for (ACMClassificationNode node : nodes) {
+            node.attach(taxonomy, node.index);
+        }
+    }
+
+    public ACMTaxonomy getTaxonomy() {
+        return taxonomy;
+    }
+
+    /**
+     * IDF of each term of the full labels; only kept by the scorer
+     */
+    private Map<String, Double> buildIDF(List<ACMClassificationNode> concepts) throws IOException {
+        Map<String, Double> idfs = new HashMap<>();
+
+        List<List<String>> lines = concepts.stream().
                 map(node -> node.getFullLabels()).
                 map(words -> {
                     Collection<String> wrds = words.stream().filter(word -> !StringUtils.isBlank(word)).collect(Collectors.toList());
-                    wrds = this.language.equals("en") ? removeStopWordsEN(wrds) : removeStopWordsPT(wrds);
-                    wrds = this.stemTerms(wrds);
+                    wrds = this.getAnalyzer().analyze(wrds);
                     return wrds.stream().collect(Collectors.toList());
                 }).
                 collect(Collectors.toList());
@@ -223,226 +540,335 @@ public class ACMClassification {
 
         lines.stream().forEach(line -> line.stream().forEach(word -> idfs.replace(word, idfs.get(word) + 1) ));
         idfs.keySet().stream().forEach(key -> idfs.replace(key, Math.log(lines.size() / idfs.get(key))));
+        return idfs;
+    }
 
+    List<ACMClassificationNode> nodes = new ArrayList<>();
+    private ACMTermScorer scorer;
+    private ACMFuzzyTermIndex fuzzyIndex;
+
+    /**
+     * Builds the scoring index over the stemmed full labels of the nodes, so classification
+     * only visits nodes sharing at least one term with the query
+     */
+    private void buildIndex(List<ACMClassificationNode> concepts, Map<String, Double> idfs) {
+        List<Collection<String>> stemmedLabels = new ArrayList<>(concepts.size());
+        for (ACMClassificationNode node : concepts) {
+            indexNode(node);
+            stemmedLabels.add(this.stemTerms(node.getFullLabels()));
+        }
+        buildScorer(stemmedLabels, idfs);
     }
 
-    @SuppressWarnings("unchecked")
-    public void loadXMLInPTBR() throws JDOMException, IOException, ClassNotFoundException {
-        this.language = "pt";
-        InputStream cacheFile = this.getClass().getResourceAsStream("/cache_en_ptbr.dat");
+    void indexNode(ACMClassificationNode node) {
+        node.index = nodes.size();
+        nodes.add(node);
+    }
 
-        try {
-            translate = TranslateOptions.getDefaultInstance().getService();
-        } catch (Exception e) {
+    /**
+     * @param stemmedLabels stemmed full labels of each node, in taxonomy order; not kept once the scorer is built
+     */
+    void buildScorer(List<? extends Collection<String>> stemmedLabels, Map<String, Double> idfs) {
+        int[] levels = new int[nodes.size()];
+        for (ACMClassificationNode node : nodes) {
+            levels[node.index] = node.getLevel();
+        }
+        if (corpusStatistics != null) {
+            idfs = corpusStatistics.blend(idfs, corpusWeight);
+        }
+        scorer = new ACMTermScorer(stemmedLabels, levels, idfs);
+        buildFuzzyIndex();
+    }
 
+    private void buildFuzzyIndex() {
+        fingerprint = 0;
+        if (fuzzyDistance == 0) {
+            fuzzyIndex = null;
+            return;
+        }
+        List<String> labels = new ArrayList<>();
+        for (ACMClassificationNode node : nodes) {
+            labels.addAll(node.getLabels());
         }
-        boolean saveCache = false;
+        fuzzyIndex = new ACMFuzzyTermIndex(scorer, getAnalyzer(), labels, fuzzyDistance, fuzzyCandidates);
+    }
 
-        Map<String, String> cache = new HashMap<>();
-        ObjectInputStream os = new ObjectInputStream(cacheFile);
-        try {
-            cache = (Map<String, String>) os.readObject();
-        } catch (Exception e) {
-            // Ignore - invalid cache
-        } finally {
-            os.close();
-        }
-
-        SAXBuilder jdomBuilder = new SAXBuilder();
-        Document jdomDocument = jdomBuilder.build(classificationXML);
-        XPathFactory xFactory = XPathFactory.instance();
-        XPathExpression<Element> expr = xFactory.compile("//skos:Concept", Filters.element(), null,
-                Namespace.getNamespace("skos", "http://www.w3.org/2004/02/skos/core#"));
-
-        List<Element> concepts = expr.evaluate(jdomDocument);
-        Map<String, ACMClassificationNode> nodeList = new HashMap<>();
-
-        for (Element linkElement : concepts) { // or skos:altLabel]
-            XPathExpression<Element> exprLabels = xFactory.compile("skos:prefLabel", Filters.element(), null,
-                    Namespace.getNamespace("skos", "http://www.w3.org/2004/02/skos/core#"));
-            List<Element> labels = exprLabels.evaluate(linkElement);
-            Set<String> labelList = new HashSet<>();
-            String trueLabel = "";
-            for (Element label : labels) {
-                trueLabel = label.getValue();
-                if (cache.get(trueLabel) == null) {
-                    cache.put(trueLabel, translatePTBR(trueLabel));
-                    saveCache = true;
-                }
-                trueLabel = cache.get(trueLabel);
-                trueLabel = trueLabel.toLowerCase();
-                labelList.addAll(Arrays.asList(trueLabel.split(" ")));
-            }
+    /**
+     * Query of the words, without stop words, with the ones missing from the labels resolved by the fuzzy index
+     */
+    private int[] encode(ACMTextAnalyzer analyzer, List<String> words) {
+        ACMFuzzyTermIndex fuzzyIndex = this.fuzzyIndex;
+        return fuzzyIndex != null ? fuzzyIndex.encode(words) : scorer.encode(analyzer.stemTerms(words));
+    }
 
-            exprLabels = xFactory.compile("skos:altLabel", Filters.element(), null,
-                    Namespace.getNamespace("skos", "http://www.w3.org/2004/02/skos/core#"));
-            labels = exprLabels.evaluate(linkElement);
-            for (Element label : labels) {
-                String secondLabel = label.getValue();
+    /**
+     * Estimated retained heap of the classification, by component
+     */
+    public ACMFootprint getFootprint() {
+        ACMFootprint footprint = new ACMFootprint();
+        if (taxonomy != null) {
+            footprint.add("structure", taxonomy.estimateStructureBytes());
+            footprint.add("labels", taxonomy.estimateLabelBytes());
+        }
+        long nodeBytes = ACMFootprint.array(nodes.size(), ACMFootprint.REFERENCE);
+        for (ACMClassificationNode node : nodes) {
+            // Node, its label view and its full true label once built
+            nodeBytes += ACMFootprint.object(7 * ACMFootprint.REFERENCE + 2 * ACMFootprint.INT)
+                    + ACMFootprint.object(ACMFootprint.REFERENCE) + ACMFootprint.string(node.fullTrueLabel);
+        }
+        footprint.add("nodes", nodeBytes);
+        if (scorer != null) {
+            footprint.add("scorer", scorer.estimateBytes());
+        }
+        if (fuzzyIndex != null) {
+            footprint.add("fuzzyIndex", fuzzyIndex.estimateBytes());
+        }
+        return footprint;
+    }
 
+    /**
+     * Nodes of the classification, in taxonomy order
+     */
+    public List<ACMClassificationNode> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
 
-                if (cache.get(secondLabel) == null) {
-                    cache.put(secondLabel, translatePTBR(secondLabel));
-                    saveCache = true;
-                }
-                secondLabel = cache.get(secondLabel);
+    public ACMTermScorer getScorer() {
+        return scorer;
+    }
 
-                labelList.addAll(Arrays.asList(secondLabel.toLowerCase().split(" ")));
+    /**
+     * Hash of the language, hierarchy, labels and term weights of the classification, which identifies its
+     * results across runs: classifications with the same fingerprint classify the same words the same way
+     */
+    public long getFingerprint() {
+        long fingerprint = this.fingerprint;
+        if (fingerprint != 0) {
+            return fingerprint;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            DataOutputStream out = new DataOutputStream(new DigestOutputStream(new OutputStream() {
+                public void write(int b) {
+                    // Only digested
+                }
+            }, digest));
+            out.writeUTF(String.valueOf(language));
+            if (fuzzyDistance > 0) {
+                out.writeInt(fuzzyDistance);
+                out.writeInt(fuzzyCandidates);
             }
-
-
-            ACMClassificationNode node = new ACMClassificationNode(graph, linkElement.getAttributeValue("about", Namespace.getNamespace("rdf", "http://www.w3.org/1999/02/22-rdf-syntax-ns#")), trueLabel, labelList);
-            if (graph.vertexSet().isEmpty()) {
-                root = node;
+            out.writeInt(nodes.size());
+            for (ACMClassificationNode node : nodes) {
+                out.writeUTF(node.getId());
+                out.writeUTF(node.getTrueLabel());
+                for (int parent : taxonomy.getParents(node.index)) {
+                    out.writeInt(parent);
+                }
+                out.writeInt(-1);
+                for (int term : scorer.getNodeTerms(node.index)) {
+                    out.writeUTF(scorer.getTerm(term));
+                    out.writeDouble(scorer.getIdf(term));
+                }
             }
+            out.flush();
+            fingerprint = ByteBuffer.wrap(digest.digest()).getLong();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        this.fingerprint = fingerprint;
+        return fingerprint;
+    }
 
-            graph.addVertex(node);
-            nodeList.put(node.id, node);
+    /**
+     * Translation store with every label of the concepts translated to the language, asking the provider
+     * for the missing ones
+     */
+    private TranslationStore translations(List<SKOSConcept> sourceConcepts, String language) throws IOException {
+        Set<String> texts = new LinkedHashSet<>();
+        for (SKOSConcept sourceConcept : sourceConcepts) {
+            texts.addAll(sourceConcept.prefLabels);
+            texts.addAll(sourceConcept.altLabels);
         }
 
-        for (Element linkElement : concepts) { // or skos:altLabel]
-            XPathExpression<Element> exprParent = xFactory.compile("skos:broader", Filters.element(), null, Namespace.getNamespace("skos", "http://www.w3.org/2004/02/skos/core#"));
-            List<Element> parents = exprParent.evaluate(linkElement);
+        TranslationStore store = translationStore;
+        if (store == null) {
+            store = language.equals("pt") ? TranslationStore.bundledPTBR(TranslationStore.defaultFilePTBR())
+                    : new TranslationStore(Collections.emptyMap(), null);
+        }
 
-            for (Element parent : parents) {
-                graph.addEdge(nodeList.get(parent.getAttributeValue("resource", Namespace.getNamespace("rdf", "http://www.w3.org/1999/02/22-rdf-syntax-ns#"))), nodeList.get(linkElement.getAttributeValue("about", Namespace.getNamespace("rdf", "http://www.w3.org/1999/02/22-rdf-syntax-ns#"))));
+        Set<String> missing = store.missing(texts);
+        if (!missing.isEmpty()) {
+            TranslationProvider provider = translationProvider;
+            if (provider == null) {
+                try {
+                    provider = new GoogleTranslationProvider();
+                } catch (RuntimeException e) {
+                    // No translation service available, labels are kept in english
+                    e.printStackTrace();
+                    provider = new OfflineTranslationProvider();
+                }
             }
+            store.putAll(provider.translate(missing, "en", language.equals("pt") ? "pt-br" : language));
         }
-
-        buildIDF();
+        return store;
     }
 
-    private String translatePTBR(String text) {
-        Translation translation =
-                translate.translate(
-                        text,
-                        Translate.TranslateOption.sourceLanguage("en"),
-                        Translate.TranslateOption.targetLanguage("pt-br"));
-
-        return translation.getTranslatedText();
+    private static List<String> translated(TranslationStore store, List<String> texts) {
+        if (store == null) {
+            return texts;
+        }
+        List<String> translations = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            String translation = store.get(text);
+            translations.add(translation == null ? text : translation);
+        }
+        return translations;
     }
 
     String stemTerm (String term) {
-        term = term.toLowerCase();
-        PorterStemmer stemmer = new PorterStemmer();
-        stemmer.setCurrent(term);
-        stemmer.stem();
-        return stemmer.getCurrent();
+        return ACMTextAnalyzer.ENGLISH.stem(term);
     }
 
     String stemTermPT (String term) {
-        term = term.toLowerCase();
-        PortugueseStemmer stemmer = new PortugueseStemmer();
-        stemmer.setCurrent(term);
-        stemmer.stem();
-        return stemmer.getCurrent();
+        return ACMTextAnalyzer.PORTUGUESE.stem(term);
     }
 
 
     Collection<String> stemTerms(Collection<String> terms) {
-        return terms.stream().map(term -> language.equals("pt") ? stemTermPT(term) : stemTerm(term)).collect(Collectors.toSet());
+        return getAnalyzer().stemTerms(terms);
     }
 
     public Collection<String> removeStopWordsEN(Collection<String> terms) {
-        String textFile = StringUtils.join(terms, " ");
-        CharArraySet stopWords = EnglishAnalyzer.getDefaultStopSet();
-        TokenStream tokenStream = new StandardTokenizer(Version.LUCENE_45, new StringReader(textFile.trim()));
-
-        tokenStream = new StopFilter(Version.LUCENE_45, tokenStream, stopWords);
-        StringBuilder sb = new StringBuilder();
-        CharTermAttribute charTermAttribute = tokenStream.addAttribute(CharTermAttribute.class);
-        try {
-            tokenStream.reset();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        while (true) {
-            try {
-                if (!tokenStream.incrementToken()) break;
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-            String term = charTermAttribute.toString();
-            sb.append(term + " ");
-        }
-        return Arrays.asList(StringUtils.split(sb.toString(), " "));
+        return ACMTextAnalyzer.ENGLISH.removeStopWords(terms);
     }
 
     public Collection<String> removeStopWordsPT(Collection<String> terms) {
-        String textFile = StringUtils.join(terms, " ");
-        CharArraySet stopWords = PortugueseAnalyzer.getDefaultStopSet();
-        TokenStream tokenStream = new StandardTokenizer(Version.LUCENE_45, new StringReader(textFile.trim()));
+        return ACMTextAnalyzer.PORTUGUESE.removeStopWords(terms);
+    }
 
-        tokenStream = new StopFilter(Version.LUCENE_45, tokenStream, stopWords);
-        StringBuilder sb = new StringBuilder();
-        CharTermAttribute charTermAttribute = tokenStream.addAttribute(CharTermAttribute.class);
-        try {
-            tokenStream.reset();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        while (true) {
-            try {
-                if (!tokenStream.incrementToken()) break;
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-            String term = charTermAttribute.toString();
-            sb.append(term + " ");
-        }
-        return Arrays.asList(StringUtils.split(sb.toString(), " "));
+    /**
+     * Stop word removal and stemming for the language of the classification
+     */
+    public ACMTextAnalyzer getAnalyzer() {
+        return ACMTextAnalyzer.forLanguage(language);
     }
 
+    /**
+     * Returns up to two of the best classifications for the words
+     *
+     * Kept for compatibility: returns no node when there is a single match, and one node when there are two.
+     *
+     * @see #getTopLabels(Collection, int, double)
+     */
     public List<ACMClassificationNode> getTrueLabel(Collection<String> words) {
+        return trueLabels(getTopLabels(words, 3, 0));
+    }
 
-        words = this.language.equals("en") ? removeStopWordsEN(words) : removeStopWordsPT(words);
-
-        Map<ACMClassificationNode, Double> similarities = new HashMap<>();
-        Collection<String> stemmedWords = stemTerms(words);
-        for (ACMClassificationNode node : graph.vertexSet()) {
-            Collection<String> fullWordsStemmed = this.stemTerms(node.getFullLabels());
-            if (CollectionUtils.intersection(stemmedWords, fullWordsStemmed).size() > 0) {
-                if (this.debug && CollectionUtils.intersection(stemmedWords, fullWordsStemmed).size() > 1) {
-                    System.out.println(CollectionUtils.intersection(stemmedWords, fullWordsStemmed) + "=>" + similarityTFIDF(stemmedWords, fullWordsStemmed));
-                }
-                similarities.put(node, node.getLevel() * CollectionUtils.intersection(stemmedWords, fullWordsStemmed).size() * similarityTFIDF(stemmedWords, fullWordsStemmed));
-            }
+    /**
+     * Legacy selection of {@link #getTrueLabel(Collection)} over the three best classifications
+     */
+    static List<ACMClassificationNode> trueLabels(List<ScoredNode> topNodes) {
+        List<ACMClassificationNode> nodes = new ArrayList<>();
+        for (ScoredNode scoredNode : topNodes.subList(0, Math.max(0, Math.min(2, topNodes.size() - 1)))) {
+            nodes.add(scoredNode.getNode());
         }
+        return nodes;
+    }
 
+    /**
+     * Same as {@link #getTrueLabel(Collection)} for each set of words, all of them scored in batch
+     */
+    public List<List<ACMClassificationNode>> getBatchTrueLabels(List<? extends Collection<String>> wordSets) {
+        List<List<ACMClassificationNode>> nodes = new ArrayList<>(wordSets.size());
+        for (List<ScoredNode> topNodes : getBatchTopLabels(wordSets, 3, 0)) {
+            nodes.add(trueLabels(topNodes));
+        }
+        return nodes;
+    }
 
-        List<ACMClassificationNode> topNodes = new LinkedList<>();
+    /**
+     * Same as {@link #getTopLabels(Collection, int, double)} for each set of words, all of them scored in batch
+     * by {@link ACMBatchScorer}
+     *
+     * @return the best classifications of each set of words, in the order of the sets
+     */
+    public List<List<ScoredNode>> getBatchTopLabels(List<? extends Collection<String>> wordSets, int k, double minScore) {
+        ClassificationMetrics metrics = this.metrics;
+        long start = now(metrics);
+
+        ACMTextAnalyzer analyzer = getAnalyzer();
+        int[][] queries = new int[wordSets.size()][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = encode(analyzer, analyzer.removeStopWords(wordSets.get(i)));
+        }
+        ACMBatchScorer.Result result = scorer.getBatchScorer().score(queries, k, minScore);
+
+        List<List<ScoredNode>> topLabels = new ArrayList<>(queries.length);
+        int emptyResults = 0;
+        for (int query = 0; query < result.size(); query++) {
+            List<ScoredNode> topNodes = new ArrayList<>(result.count(query));
+            for (int i = 0; i < result.count(query); i++) {
+                topNodes.add(new ScoredNode(nodes.get(result.node(query, i)), result.score(query, i)));
+            }
+            if (topNodes.isEmpty()) {
+                emptyResults++;
+            }
+            topLabels.add(topNodes);
+        }
 
-        similarities.entrySet()
-                .stream()
-                .sorted(new Comparator<Map.Entry<ACMClassificationNode, Double>>() {
-                    @Override
-                    public int compare(Map.Entry<ACMClassificationNode, Double> o1, Map.Entry<ACMClassificationNode, Double> o2) {
-                        return o2.getValue().compareTo(o1.getValue());
-                    }
-                })
-                .forEach(new Consumer<Map.Entry<ACMClassificationNode, Double>>() {
-                    @Override
-                    public void accept(Map.Entry<ACMClassificationNode, Double> acmClassificationNodeIntegerEntry) {
-                        if (acmClassificationNodeIntegerEntry.getValue() > 0) {
-                            topNodes.add(acmClassificationNodeIntegerEntry.getKey());
-                            if (debug) {
-                                System.out.println("Similarity for: " + acmClassificationNodeIntegerEntry.getKey() + "=>" + acmClassificationNodeIntegerEntry.getValue());
-                            }
-                        }
-                    }
-                });
+        if (metrics != null) {
+            metrics.batch.record(System.nanoTime() - start);
+            metrics.batchSize.record(queries.length);
+            metrics.requests.add(queries.length);
+            metrics.emptyResults.add(emptyResults);
+        }
+        return topLabels;
+    }
 
-        if (topNodes.isEmpty()) {
-            return topNodes;
-        } else {
-            return topNodes.subList(0, Math.min(2, topNodes.size() - 1));
+    /**
+     * Returns the k best classifications for the words, best first, with a score of at least minScore
+     */
+    public List<ScoredNode> getTopLabels(Collection<String> words, int k, double minScore) {
+        ClassificationMetrics metrics = this.metrics;
+        long start = now(metrics);
+
+        ACMTextAnalyzer analyzer = getAnalyzer();
+        List<String> terms = analyzer.removeStopWords(words);
+        long stopped = now(metrics);
+        int[] query = encode(analyzer, terms);
+        long stemmed = now(metrics);
+        // Candidates are generated and scored in the same pass
+        ACMTermScorer.Candidates candidates = scorer.score(query);
+        long scored = now(metrics);
+        int[] top = scorer.top(candidates, k, minScore);
+
+        if (metrics != null) {
+            long selected = System.nanoTime();
+            metrics.stopWords.record(stopped - start);
+            metrics.stemming.record(stemmed - stopped);
+            metrics.scoring.record(scored - stemmed);
+            metrics.selection.record(selected - scored);
+            metrics.total.record(selected - start);
+            metrics.queryTerms.record(query.length);
+            metrics.candidates.record(candidates.size());
+            metrics.requests.increment();
+            if (top.length == 0) {
+                metrics.emptyResults.increment();
+            }
         }
 
-    }
+        List<ScoredNode> topNodes = new ArrayList<>();
+        for (int candidate : top) {
+            ACMClassificationNode node = nodes.get(candidates.node(candidate));
+            topNodes.add(new ScoredNode(node, candidates.score(candidate)));
+            if (debug) {
+                System.out.println(scorer.commonTerms(query, node.index) + "=>" + candidates.score(candidate));
+                System.out.println("Similarity for: " + node + "=>" + candidates.score(candidate));
+            }
+        }
 
-    private Double similarityTFIDF(Collection<String> stemmedWords, Collection<String> fullWordsStemmed) {
-        Collection<String> common = CollectionUtils.intersection(stemmedWords, fullWordsStemmed);
-        return common.stream().mapToDouble(word -> idfs.get(word)).sum() * common.size();
+        return topNodes;
     }
 
     /**
@@ -453,31 +879,10 @@ public class ACMClassification {
     public String getTreeView() {
         StringBuilder output = new StringBuilder();
 
-
-        Set<ACMClassificationNode> roots = new HashSet<>();
-
-        for (ACMClassificationNode node : graph.vertexSet()) {
-            if (graph.incomingEdgesOf(node).isEmpty()) {
-                roots.add(node);
-            }
-        }
-
-        for (ACMClassificationNode root : roots) {
-            DepthFirstIterator<ACMClassificationNode, DefaultEdge> iterator = new DepthFirstIterator<ACMClassificationNode, DefaultEdge>(graph, root);
-            for (; iterator.hasNext(); ) {
-                ACMClassificationNode node = iterator.next();
-                Integer level = 0;
-
-                Set<DefaultEdge> prior = graph.incomingEdgesOf(node);
-
-                while (!prior.isEmpty()) {
-                    level++;
-                    prior = graph.incomingEdgesOf(graph.getEdgeSource(prior.iterator().next()));
-                }
-
-                output.append(StringUtils.repeat("\t", level) + node.trueLabel + "[" + StringUtils.join(node.labels, ",") + "]");
-                output.append("\n");
-            }
+        for (int concept : taxonomy.getPreorder()) {
+            ACMClassificationNode node = nodes.get(concept);
+            output.append(StringUtils.repeat("\t", taxonomy.getDepth(concept) - 1) + node.trueLabel + "[" + StringUtils.join(node.labels, ",") + "]");
+            output.append("\n");
         }
 
         return output.toString();
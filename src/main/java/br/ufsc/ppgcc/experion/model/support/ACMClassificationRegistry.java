@@ -0,0 +1,37 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import java.io.IOException;
+
+/**
+ * Shared, fully loaded and read-only ACM Classifications, one per language.
+ *
+ * Each language is loaded once per JVM, on first use, and the same instance is handed
+ * to every caller, so builders can be created per request without reloading the classification.
+ * All languages share the same hierarchy, see {@link ACMMultilingualClassification}.
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public final class ACMClassificationRegistry {
+
+    private static final ACMMultilingualClassification classifications = new ACMMultilingualClassification();
+
+    private ACMClassificationRegistry() {
+    }
+
+    /**
+     * Returns the shared classification for the language ("en", "pt" or a registered one), loading it if needed
+     *
+     * @throws IOException if the classification could not be loaded
+     */
+    public static ACMClassification get(String language) throws IOException {
+        return classifications.get(language);
+    }
+
+    /**
+     * Shared classifications of all languages, where other languages may be registered
+     */
+    public static ACMMultilingualClassification getDefault() {
+        return classifications;
+    }
+}
@@ -0,0 +1,438 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Local HTTP server keeping one warm classification per language, shared by all the engines using it.
+ *
+ * Concurrent requests of a language are coalesced into micro-batches by an {@link ACMRequestBatcher};
+ * when the evidences of a request do not fit in its queue, the request is answered with 503 and should be
+ * retried later. Request bodies have one evidence per line, with its keywords separated by commas, and are
+ * answered with 413 past the maximum number of lines or bytes. Responses are JSON:
+ * <ul>
+ *     <li>{@code POST /trueLabel?language=en}: the classifications of each evidence, as {@link ACMClassification#getTrueLabel(Collection)}</li>
+ *     <li>{@code POST /topLabels?language=en&k=10}: the k best classifications of each evidence, with their scores</li>
+ *     <li>{@code POST /logicalEvidences}: lines prefixed by the language of the evidence and a tab; the evidences (line numbers)
+ *     of each classification, as {@code ACMLogicalEvidenceBuilder#getLogicalEvidences}</li>
+ *     <li>{@code GET /stats}: queue depth of each language, latencies and batch sizes</li>
+ * </ul>
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public class ACMClassificationServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 8089;
+
+    private final ACMMultilingualClassification classifications;
+    private final InetSocketAddress address;
+    private final ACMMetricsRegistry metrics = new ACMMetricsRegistry();
+    private final ConcurrentMap<String, ACMRequestBatcher> batchers = new ConcurrentHashMap<>();
+    private int queueCapacity = 4096;
+    private int maxRequestLines = 1024;
+    private int maxRequestBytes = 1 << 20;
+    private int maxBatchSize = 256;
+    private long maxDelayMillis = 2;
+    private int handlerThreads = 16;
+    private long requestTimeoutMillis = 30000;
+    private HttpServer server;
+    private ExecutorService handlers;
+
+    public ACMClassificationServer(ACMMultilingualClassification classifications, InetSocketAddress address) {
+        this.classifications = classifications;
+        this.address = address;
+    }
+
+    /**
+     * Evidences of a language waiting or being classified before new requests are rejected
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Evidences of a single request, at most the queue capacity
+     */
+    public void setMaxRequestLines(int maxRequestLines) {
+        this.maxRequestLines = maxRequestLines;
+    }
+
+    public void setMaxRequestBytes(int maxRequestBytes) {
+        this.maxRequestBytes = maxRequestBytes;
+    }
+
+    /**
+     * Evidences classified in a single batch
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Time a batch waits for more requests after the first one
+     */
+    public void setMaxDelayMillis(long maxDelayMillis) {
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    public void setHandlerThreads(int handlerThreads) {
+        this.handlerThreads = handlerThreads;
+    }
+
+    /**
+     * Time a request waits for its classification before being answered with 504
+     */
+    public void setRequestTimeoutMillis(long requestTimeoutMillis) {
+        this.requestTimeoutMillis = requestTimeoutMillis;
+    }
+
+    public ACMMetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Loads the classifications of the languages before the first request
+     */
+    public void warm(String... languages) throws IOException {
+        for (String language : languages) {
+            batcher(classifications.get(language));
+        }
+    }
+
+    public synchronized void start() throws IOException {
+        server = HttpServer.create(address, 0);
+        server.createContext("/trueLabel", exchange -> handle(exchange, "POST", this::trueLabel));
+        server.createContext("/topLabels", exchange -> handle(exchange, "POST", this::topLabels));
+        server.createContext("/logicalEvidences", exchange -> handle(exchange, "POST", this::logicalEvidences));
+        server.createContext("/stats", exchange -> handle(exchange, "GET", ignored -> stats()));
+        handlers = Executors.newFixedThreadPool(handlerThreads);
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    /**
+     * Address the server is listening on, with the actual port when started on port 0
+     */
+    public InetSocketAddress getAddress() {
+        return server != null ? server.getAddress() : address;
+    }
+
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            handlers.shutdownNow();
+            server = null;
+        }
+        batchers.values().forEach(ACMRequestBatcher::close);
+        batchers.clear();
+    }
+
+    /**
+     * Batcher of the language of the classification, which follows the reloads of the classifications
+     */
+    private ACMRequestBatcher batcher(ACMClassification classification) {
+        return batchers.computeIfAbsent(classification.getLanguage(), language -> new ACMRequestBatcher(language,
+                () -> current(language), queueCapacity, maxBatchSize, TimeUnit.MILLISECONDS.toNanos(maxDelayMillis), metrics));
+    }
+
+    private ACMClassification current(String language) {
+        try {
+            return classifications.get(language);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private interface Endpoint {
+        String handle(HttpExchange exchange) throws Exception;
+    }
+
+    private static final class RequestTooLargeException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private RequestTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    private void handle(HttpExchange exchange, String method, Endpoint endpoint) throws IOException {
+        int status = 200;
+        String response;
+        try {
+            if (!exchange.getRequestMethod().equals(method)) {
+                status = 405;
+                response = error("Expected " + method);
+            } else {
+                response = endpoint.handle(exchange);
+            }
+        } catch (RequestTooLargeException e) {
+            status = 413;
+            response = error(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            response = error(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            status = 503;
+            response = error(e.getMessage());
+            exchange.getResponseHeaders().set("Retry-After", "1");
+        } catch (TimeoutException e) {
+            status = 504;
+            response = error("Classification timed out");
+        } catch (Exception e) {
+            e.printStackTrace();
+            status = 500;
+            response = error(String.valueOf(e));
+        }
+
+        byte[] body = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private String trueLabel(HttpExchange exchange) throws Exception {
+        Map<String, String> parameters = parameters(exchange.getRequestURI());
+        List<List<ACMClassification.ScoredNode>> topLabels = classify(language(parameters), lines(exchange), 3);
+
+        StringBuilder json = new StringBuilder("[");
+        for (List<ACMClassification.ScoredNode> nodes : topLabels) {
+            json.append(json.length() > 1 ? "," : "").append("[");
+            List<ACMClassification.ACMClassificationNode> trueLabels = ACMClassification.trueLabels(nodes);
+            for (int i = 0; i < trueLabels.size(); i++) {
+                json.append(i > 0 ? "," : "").append(node(trueLabels.get(i))).append("}");
+            }
+            json.append("]");
+        }
+        return json.append("]").toString();
+    }
+
+    private String topLabels(HttpExchange exchange) throws Exception {
+        Map<String, String> parameters = parameters(exchange.getRequestURI());
+        int k;
+        try {
+            k = Integer.parseInt(parameters.getOrDefault("k", "10"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid k: " + parameters.get("k"));
+        }
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        List<List<ACMClassification.ScoredNode>> topLabels = classify(language(parameters), lines(exchange), k);
+
+        StringBuilder json = new StringBuilder("[");
+        for (List<ACMClassification.ScoredNode> nodes : topLabels) {
+            json.append(json.length() > 1 ? "," : "").append("[");
+            for (int i = 0; i < nodes.size(); i++) {
+                json.append(i > 0 ? "," : "").append(node(nodes.get(i).getNode()))
+                        .append(",\"score\":").append(nodes.get(i).getScore()).append("}");
+            }
+            json.append("]");
+        }
+        return json.append("]").toString();
+    }
+
+    private String logicalEvidences(HttpExchange exchange) throws Exception {
+        List<String> lines = lines(exchange);
+
+        // Evidences of each language are classified in the same batch
+        Map<ACMClassification, List<Integer>> evidences = new IdentityHashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int tab = line.indexOf('\t');
+            String language = tab < 0 ? null : line.substring(0, tab).trim();
+            evidences.computeIfAbsent(classifications.getOrDefault(language), key -> new ArrayList<>()).add(i);
+        }
+
+        Map<ACMClassification.ACMClassificationNode, List<Integer>> logicalEvidences = new LinkedHashMap<>();
+        Map<ACMClassification, CompletableFuture<List<List<ACMClassification.ScoredNode>>>> results = new IdentityHashMap<>();
+        for (Map.Entry<ACMClassification, List<Integer>> entry : evidences.entrySet()) {
+            List<List<String>> keywords = new ArrayList<>();
+            for (int i : entry.getValue()) {
+                String line = lines.get(i);
+                keywords.add(keywords(line.substring(line.indexOf('\t') + 1)));
+            }
+            results.put(entry.getKey(), batcher(entry.getKey()).submit(keywords, 3));
+        }
+        for (Map.Entry<ACMClassification, List<Integer>> entry : evidences.entrySet()) {
+            List<List<ACMClassification.ScoredNode>> topLabels = await(results.get(entry.getKey()));
+            for (int i = 0; i < topLabels.size(); i++) {
+                for (ACMClassification.ACMClassificationNode node : ACMClassification.trueLabels(topLabels.get(i))) {
+                    logicalEvidences.computeIfAbsent(node, key -> new ArrayList<>()).add(entry.getValue().get(i));
+                }
+            }
+        }
+
+        StringBuilder json = new StringBuilder("[");
+        for (Map.Entry<ACMClassification.ACMClassificationNode, List<Integer>> entry : logicalEvidences.entrySet()) {
+            Collections.sort(entry.getValue());
+            json.append(json.length() > 1 ? "," : "").append(node(entry.getKey()))
+                    .append(",\"evidences\":").append(entry.getValue()).append("}");
+        }
+        return json.append("]").toString();
+    }
+
+    private String stats() {
+        StringBuilder json = new StringBuilder("{\"languages\":{");
+        String separator = "";
+        for (Map.Entry<String, ACMRequestBatcher> entry : new TreeMap<>(batchers).entrySet()) {
+            json.append(separator).append(quote(entry.getKey())).append(":{\"queueDepth\":").append(entry.getValue().getQueueDepth())
+                    .append(",\"queueCapacity\":").append(entry.getValue().getQueueCapacity()).append("}");
+            separator = ",";
+        }
+
+        json.append("},\"histograms\":{");
+        separator = "";
+        for (Map.Entry<String, ACMHistogram> entry : metrics.getHistograms().entrySet()) {
+            ACMHistogram histogram = entry.getValue();
+            json.append(separator).append(quote(entry.getKey())).append(":{\"count\":").append(histogram.getCount())
+                    .append(",\"mean\":").append(histogram.getMean()).append(",\"p50\":").append(histogram.getP50())
+                    .append(",\"p95\":").append(histogram.getP95()).append(",\"p99\":").append(histogram.getP99())
+                    .append(",\"max\":").append(histogram.getMax()).append("}");
+            separator = ",";
+        }
+
+        json.append("},\"counters\":{");
+        separator = "";
+        for (Map.Entry<String, ACMCounter> entry : metrics.getCounters().entrySet()) {
+            json.append(separator).append(quote(entry.getKey())).append(":").append(entry.getValue().getCount());
+            separator = ",";
+        }
+        return json.append("}}").toString();
+    }
+
+    private List<List<ACMClassification.ScoredNode>> classify(String language, List<String> lines, int k) throws Exception {
+        List<List<String>> keywords = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            keywords.add(keywords(line));
+        }
+        return await(batcher(classifications.get(language)).submit(keywords, k));
+    }
+
+    private <T> T await(Future<T> result) throws Exception {
+        try {
+            return result.get(requestTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    private String language(Map<String, String> parameters) {
+        String language = parameters.getOrDefault("language", ACMMultilingualClassification.DEFAULT_LANGUAGE);
+        if (!classifications.isRegistered(language)) {
+            throw new IllegalArgumentException("Unsupported language: " + language);
+        }
+        return language;
+    }
+
+    private static Map<String, String> parameters(URI uri) throws UnsupportedEncodingException {
+        Map<String, String> parameters = new HashMap<>();
+        if (uri.getRawQuery() != null) {
+            for (String parameter : uri.getRawQuery().split("&")) {
+                int equals = parameter.indexOf('=');
+                if (equals > 0) {
+                    parameters.put(URLDecoder.decode(parameter.substring(0, equals), "UTF-8"),
+                            URLDecoder.decode(parameter.substring(equals + 1), "UTF-8"));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Lines of the request body, read only up to the maximum number of bytes and lines
+     */
+    private List<String> lines(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream input = exchange.getRequestBody()) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                if (body.size() + read > maxRequestBytes) {
+                    throw new RequestTooLargeException("Request body over " + maxRequestBytes + " bytes");
+                }
+                body.write(buffer, 0, read);
+            }
+        }
+
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new StringReader(new String(body.toByteArray(), StandardCharsets.UTF_8)))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (lines.size() == maxRequestLines) {
+                    throw new RequestTooLargeException("Request over " + maxRequestLines + " lines");
+                }
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static List<String> keywords(String line) {
+        List<String> keywords = new ArrayList<>();
+        for (String keyword : line.split(",")) {
+            if (!keyword.trim().isEmpty()) {
+                keywords.add(keyword.trim());
+            }
+        }
+        return keywords;
+    }
+
+    /**
+     * Opening of the JSON object of a node, to be completed by the caller
+     */
+    private static String node(ACMClassification.ACMClassificationNode node) {
+        return "{\"id\":" + quote(node.getId()) + ",\"label\":" + quote(node.getFullTrueLabel());
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    private static String quote(String text) {
+        if (text == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : text.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append("\"").toString();
+    }
+
+    /**
+     * Starts a server, by default on port {@value #DEFAULT_PORT} of the loopback interface with english and
+     * portuguese loaded, and publishes its metrics through JMX
+     *
+     * @param args port and languages to load at startup
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String[] languages = args.length > 1 ? Arrays.copyOfRange(args, 1, args.length) : new String[]{"en", "pt"};
+
+        ACMClassificationServer server = new ACMClassificationServer(ACMClassificationRegistry.getDefault(),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        server.warm(languages);
+        server.getMetrics().registerJMX();
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.println("ACM Classification server listening on " + server.getAddress());
+    }
+}
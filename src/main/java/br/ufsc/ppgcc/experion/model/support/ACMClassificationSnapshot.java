@@ -0,0 +1,182 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned binary snapshot of a loaded ACM Classification (nodes, parent links,
+ * scorer terms with their IDF weights and the term ids of each node), so it can be loaded without parsing the XML.
+ *
+ * Snapshots are generated at build time into the classpath (see {@link #main(String[])}) from the bundled
+ * resources only, and carry a checksum of them, so a stale snapshot is ignored.
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public final class ACMClassificationSnapshot {
+
+    static final int MAGIC = 0x41434D53;
+    static final int VERSION = 3;
+
+    private ACMClassificationSnapshot() {
+    }
+
+    static String resourceName(String language) {
+        return "/acm_" + language + ".snapshot";
+    }
+
+    /**
+     * Checksum of the bundled resources the classification for the language is built from. Translations
+     * stored by the user are not part of it, so the same resources always give the same snapshot.
+     */
+    static long sourceChecksum(String language) throws IOException {
+        CRC32 crc = new CRC32();
+        updateChecksum(crc, "/acm.xml");
+        if (language.equals("pt")) {
+            updateChecksum(crc, "/cache_en_ptbr.dat");
+        }
+        return crc.getValue();
+    }
+
+    private static void updateChecksum(CRC32 crc, String resource) throws IOException {
+        try (InputStream input = ACMClassificationSnapshot.class.getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new FileNotFoundException(resource);
+            }
+            updateChecksum(crc, input);
+        }
+    }
+
+    private static void updateChecksum(CRC32 crc, InputStream input) throws IOException {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = input.read(buffer)) > 0) {
+            crc.update(buffer, 0, read);
+        }
+    }
+
+    static void write(ACMClassification classification, OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(classification.language);
+        out.writeLong(sourceChecksum(classification.language));
+
+        List<ACMClassification.ACMClassificationNode> nodes = classification.nodes;
+        out.writeInt(nodes.size());
+        for (ACMClassification.ACMClassificationNode node : nodes) {
+            out.writeUTF(node.getId());
+            out.writeUTF(node.getTrueLabel());
+            out.writeInt(node.getLabels().size());
+            for (String label : node.getLabels()) {
+                out.writeUTF(label);
+            }
+        }
+
+        // Parents in order, as the first parent of a node defines its full label
+        ACMTaxonomy taxonomy = classification.taxonomy;
+        for (ACMClassification.ACMClassificationNode node : nodes) {
+            int[] parents = taxonomy.getParents(node.index);
+            out.writeInt(parents.length);
+            for (int parent : parents) {
+                out.writeInt(parent);
+            }
+        }
+
+        // Terms of the scorer with their IDF, and the term ids of each node
+        ACMTermScorer scorer = classification.getScorer();
+        out.writeInt(scorer.getTermCount());
+        for (int term = 0; term < scorer.getTermCount(); term++) {
+            out.writeUTF(scorer.getTerm(term));
+            out.writeDouble(scorer.getIdf(term));
+        }
+
+        for (ACMClassification.ACMClassificationNode node : nodes) {
+            int[] terms = scorer.getNodeTerms(node.index);
+            out.writeInt(terms.length);
+            for (int term : terms) {
+                out.writeInt(term);
+            }
+        }
+
+        out.flush();
+    }
+
+    static boolean read(ACMClassification classification, InputStream input, String language) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(language)
+                || in.readLong() != sourceChecksum(language)) {
+            return false;
+        }
+
+        ACMTaxonomy.Builder builder = new ACMTaxonomy.Builder();
+        ACMClassification.ACMClassificationNode[] nodes = new ACMClassification.ACMClassificationNode[in.readInt()];
+        for (int i = 0; i < nodes.length; i++) {
+            String id = in.readUTF();
+            String trueLabel = in.readUTF();
+            String[] labels = new String[in.readInt()];
+            for (int j = 0; j < labels.length; j++) {
+                labels[j] = in.readUTF();
+            }
+            nodes[i] = new ACMClassification.ACMClassificationNode(id, trueLabel, Arrays.asList(labels));
+            builder.addConcept(id, trueLabel, nodes[i].getLabels());
+        }
+
+        for (ACMClassification.ACMClassificationNode node : nodes) {
+            int parentCount = in.readInt();
+            for (int j = 0; j < parentCount; j++) {
+                builder.addBroader(node.getId(), nodes[in.readInt()].getId());
+            }
+        }
+
+        String[] terms = new String[in.readInt()];
+        Map<String, Double> idfs = new HashMap<>();
+        for (int i = 0; i < terms.length; i++) {
+            terms[i] = in.readUTF();
+            idfs.put(terms[i], in.readDouble());
+        }
+
+        List<Collection<String>> stemmedLabels = new ArrayList<>(nodes.length);
+        for (int i = 0; i < nodes.length; i++) {
+            String[] stemmed = new String[in.readInt()];
+            for (int j = 0; j < stemmed.length; j++) {
+                stemmed[j] = terms[in.readInt()];
+            }
+            stemmedLabels.add(Arrays.asList(stemmed));
+        }
+
+        classification.language = language;
+        classification.root = nodes.length > 0 ? nodes[0] : null;
+        classification.buildTaxonomy(builder.build(), Arrays.asList(nodes));
+        for (ACMClassification.ACMClassificationNode node : nodes) {
+            classification.indexNode(node);
+        }
+        classification.buildScorer(stemmedLabels, idfs);
+        return true;
+    }
+
+    /**
+     * Generates the snapshots for all bundled languages into the given directory, using the bundled
+     * translations only: no translation file of the user is read, and missing translations are not requested
+     *
+     * @param args output directory
+     */
+    public static void main(String[] args) throws Exception {
+        File outputDir = new File(args.length > 0 ? args[0] : ".");
+
+        ACMClassification english = new ACMClassification();
+        english.parseXML();
+        try (OutputStream output = new FileOutputStream(new File(outputDir, resourceName("en").substring(1)))) {
+            english.saveSnapshot(output);
+        }
+
+        ACMClassification portuguese = new ACMClassification();
+        portuguese.setTranslationStore(TranslationStore.bundledPTBR(null));
+        portuguese.setTranslationProvider(new OfflineTranslationProvider());
+        portuguese.parseXMLInPTBR();
+        try (OutputStream output = new FileOutputStream(new File(outputDir, resourceName("pt").substring(1)))) {
+            portuguese.saveSnapshot(output);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free event counter
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public class ACMCounter implements ACMCounterMBean {
+
+    private final LongAdder count = new LongAdder();
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long value) {
+        count.add(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public void reset() {
+        count.reset();
+    }
+
+    public String toString() {
+        return String.valueOf(getCount());
+    }
+}
@@ -0,0 +1,14 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+/**
+ * JMX view of an {@link ACMCounter}
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public interface ACMCounterMBean {
+
+    long getCount();
+
+    void reset();
+}
@@ -0,0 +1,101 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Estimated retained heap of ACM Classifications, by component.
+ *
+ * Estimates assume a 64-bit JVM with compressed references and two bytes per string char, and count
+ * what each component holds, so components shared by several classifications can be reported once.
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public class ACMFootprint {
+
+    static final int HEADER = 12;
+    static final int REFERENCE = 4;
+    static final int INT = 4;
+    static final int DOUBLE = 8;
+    static final int BOXED = 16;
+
+    private final Map<String, Long> components = new LinkedHashMap<>();
+
+    /**
+     * Adds the bytes to the component
+     */
+    public void add(String component, long bytes) {
+        components.merge(component, bytes, Long::sum);
+    }
+
+    /**
+     * Adds all the components of the other footprint
+     */
+    public void addAll(ACMFootprint other) {
+        other.components.forEach(this::add);
+    }
+
+    public long getBytes(String component) {
+        return components.getOrDefault(component, 0L);
+    }
+
+    public long getTotalBytes() {
+        return components.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public Map<String, Long> getComponents() {
+        return Collections.unmodifiableMap(components);
+    }
+
+    /**
+     * One line per component, in KB
+     */
+    public String toString() {
+        StringBuilder output = new StringBuilder();
+        components.forEach((component, bytes) -> output.append(String.format("%s: %d KB%n", component, bytes / 1024)));
+        output.append(String.format("total: %d KB", getTotalBytes() / 1024));
+        return output.toString();
+    }
+
+    static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    static long object(int fieldBytes) {
+        return align(HEADER + fieldBytes);
+    }
+
+    static long array(int length, int elementBytes) {
+        return align(16 + (long) length * elementBytes);
+    }
+
+    static long string(String text) {
+        return text == null ? 0 : object(2 * REFERENCE + INT) + array(text.length(), 2);
+    }
+
+    static long strings(String[] texts) {
+        long bytes = array(texts.length, REFERENCE);
+        for (String text : texts) {
+            bytes += string(text);
+        }
+        return bytes;
+    }
+
+    static long ints(int[][] arrays) {
+        long bytes = array(arrays.length, REFERENCE);
+        for (int[] values : arrays) {
+            bytes += array(values.length, INT);
+        }
+        return bytes;
+    }
+
+    /**
+     * Hash map with its table and entries, without its keys and values
+     */
+    static long hashMap(int size) {
+        int capacity = Integer.highestOneBit(Math.max(1, (int) (size / 0.75f)) * 2 - 1);
+        return object(6 * INT) + array(capacity, REFERENCE) + (long) size * object(INT + 3 * REFERENCE);
+    }
+}
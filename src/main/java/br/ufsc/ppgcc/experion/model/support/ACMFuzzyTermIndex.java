@@ -0,0 +1,254 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import java.util.*;
+
+/**
+ * Resolves query words missing from the vocabulary of a classification to the nearest stemmed terms,
+ * so misspelled or concatenated keywords ("databse", "datamining") still match the labels.
+ *
+ * A word is first split into two words whose stems are terms, and otherwise matched against the words of the
+ * labels sharing enough character trigrams with it to be within the edit distance, each resolving to its
+ * stemmed term. Words are compared before stemming, as the stem of a misspelled word is often cut elsewhere.
+ * Trigrams found in more than 128 words are too common to tell candidates apart and are
+ * not counted, and only the words sharing the most trigrams are compared, up to the maximum number of
+ * candidates, so the cost of a word is bounded whatever the size of the vocabulary. Hyphenated words are
+ * already split by the tokenizer. Resolved words are cached.
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public final class ACMFuzzyTermIndex {
+
+    private static final int GRAM = 3;
+    private static final int MIN_PART = 3;
+    private static final int MAX_POSTINGS = 128;
+    private static final int[] NONE = new int[0];
+
+    /**
+     * Per-thread count of the trigrams shared by each word with the query word, reset by stamping
+     */
+    private static final class SharedGrams {
+        private final int[] counts;
+        private final int[] stamps;
+        private final int[] words;
+        private int stamp = 0;
+        private int size = 0;
+
+        private SharedGrams(int wordCount) {
+            this.counts = new int[wordCount];
+            this.stamps = new int[wordCount];
+            this.words = new int[wordCount];
+        }
+
+        private void reset() {
+            size = 0;
+            if (++stamp == 0) {
+                Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+        }
+
+        private void add(int word) {
+            if (stamps[word] != stamp) {
+                stamps[word] = stamp;
+                counts[word] = 0;
+                words[size++] = word;
+            }
+            counts[word]++;
+        }
+    }
+
+    private final ACMTermScorer scorer;
+    private final ACMTextAnalyzer analyzer;
+    private final int maxDistance;
+    private final int maxCandidates;
+    private final String[] words;
+    private final int[] wordTerms;
+    private final Map<String, int[]> grams = new HashMap<>();
+    private final BoundedCache<String, int[]> resolved = new BoundedCache<>(10000);
+    private final ThreadLocal<SharedGrams> shared;
+
+    /**
+     * @param labels        labels of the nodes, whose words are matched
+     * @param maxDistance   edit distance allowed for the longest words; shorter words allow less, one per 4 letters
+     * @param maxCandidates words compared with each query word
+     */
+    ACMFuzzyTermIndex(ACMTermScorer scorer, ACMTextAnalyzer analyzer, Collection<String> labels, int maxDistance, int maxCandidates) {
+        if (maxDistance < 0 || maxCandidates <= 0) {
+            throw new IllegalArgumentException("Invalid fuzzy matching: " + maxDistance + ", " + maxCandidates);
+        }
+        this.scorer = scorer;
+        this.analyzer = analyzer;
+        this.maxDistance = maxDistance;
+        this.maxCandidates = maxCandidates;
+
+        // Sorted, so ties resolve the same way on every load
+        SortedMap<String, Integer> vocabulary = new TreeMap<>();
+        for (String word : analyzer.removeStopWords(labels)) {
+            int term = scorer.getTermId(analyzer.stem(word));
+            if (term >= 0) {
+                vocabulary.put(word.toLowerCase(), term);
+            }
+        }
+        words = vocabulary.keySet().toArray(new String[0]);
+        wordTerms = vocabulary.values().stream().mapToInt(Integer::intValue).toArray();
+
+        Map<String, List<Integer>> wordsByGram = new HashMap<>();
+        for (int word = 0; word < words.length; word++) {
+            for (String gram : grams(words[word])) {
+                wordsByGram.computeIfAbsent(gram, key -> new ArrayList<>()).add(word);
+            }
+        }
+        wordsByGram.forEach((gram, ids) -> grams.put(gram, ids.stream().mapToInt(Integer::intValue).toArray()));
+        shared = ThreadLocal.withInitial(() -> new SharedGrams(words.length));
+    }
+
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    public int getMaxCandidates() {
+        return maxCandidates;
+    }
+
+    /**
+     * Sorted ids of the terms of the words, as {@link ACMTermScorer#encode(Collection)} of their stems,
+     * with the words missing from the vocabulary resolved to their nearest terms
+     *
+     * @param words words without stop words
+     */
+    public int[] encode(Collection<String> words) {
+        Set<String> stems = new HashSet<>();
+        for (String word : words) {
+            String stem = analyzer.stem(word);
+            if (scorer.getTermId(stem) >= 0) {
+                stems.add(stem);
+            } else {
+                for (int term : resolve(word)) {
+                    stems.add(scorer.getTerm(term));
+                }
+            }
+        }
+        return scorer.encode(stems);
+    }
+
+    /**
+     * Ids of the terms of the words nearest to a word missing from the vocabulary, or none
+     */
+    public int[] resolve(String word) {
+        return resolved.get(word.toLowerCase(), this::nearest);
+    }
+
+    private int[] nearest(String word) {
+        // Two words of the vocabulary, the longest first part winning
+        for (int split = word.length() - MIN_PART; split >= MIN_PART; split--) {
+            int first = scorer.getTermId(analyzer.stem(word.substring(0, split)));
+            int second = first < 0 ? -1 : scorer.getTermId(analyzer.stem(word.substring(split)));
+            if (second >= 0) {
+                return first == second ? new int[]{first} : new int[]{Math.min(first, second), Math.max(first, second)};
+            }
+        }
+
+        int distance = Math.min(maxDistance, word.length() / 4);
+        List<String> queryGrams = grams(word);
+        // Each edit changes at most GRAM trigrams
+        int minShared = queryGrams.size() - GRAM * distance;
+        if (distance == 0 || minShared <= 0) {
+            return NONE;
+        }
+
+        SharedGrams shared = this.shared.get();
+        shared.reset();
+        int skipped = 0;
+        for (String gram : queryGrams) {
+            int[] ids = grams.get(gram);
+            if (ids == null) {
+                continue;
+            }
+            if (ids.length > MAX_POSTINGS) {
+                skipped++;
+                continue;
+            }
+            for (int id : ids) {
+                shared.add(id);
+            }
+        }
+        // Skipped trigrams may still be shared, so they are taken as shared
+        int required = Math.max(1, minShared - skipped);
+
+        // Most shared trigrams first, then in word order
+        long[] candidates = new long[shared.size];
+        int candidateCount = 0;
+        for (int i = 0; i < shared.size; i++) {
+            int id = shared.words[i];
+            int count = shared.counts[id];
+            if (count >= required && Math.abs(words[id].length() - word.length()) <= distance) {
+                candidates[candidateCount++] = (long) (Integer.MAX_VALUE - count) << 32 | id;
+            }
+        }
+        Arrays.sort(candidates, 0, candidateCount);
+
+        int best = -1;
+        int bestDistance = distance + 1;
+        for (int i = 0; i < Math.min(maxCandidates, candidateCount); i++) {
+            int candidate = (int) candidates[i];
+            int candidateDistance = distance(word, words[candidate], bestDistance - 1);
+            if (candidateDistance < bestDistance) {
+                best = candidate;
+                bestDistance = candidateDistance;
+            }
+        }
+        return best < 0 ? NONE : new int[]{wordTerms[best]};
+    }
+
+    /**
+     * Estimated heap of the words and of their trigram index, without the cached query words
+     */
+    long estimateBytes() {
+        long bytes = ACMFootprint.strings(words) + ACMFootprint.array(wordTerms.length, ACMFootprint.INT)
+                + ACMFootprint.hashMap(grams.size());
+        for (Map.Entry<String, int[]> gram : grams.entrySet()) {
+            bytes += ACMFootprint.string(gram.getKey()) + ACMFootprint.array(gram.getValue().length, ACMFootprint.INT);
+        }
+        return bytes;
+    }
+
+    /**
+     * Trigrams of the word, padded so its first and last letters count as much as the others
+     */
+    private static List<String> grams(String word) {
+        String padded = "^" + word + "$";
+        List<String> grams = new ArrayList<>(padded.length());
+        for (int i = 0; i + GRAM <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /**
+     * Levenshtein distance of the words, or more than the maximum once it is exceeded
+     */
+    static int distance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
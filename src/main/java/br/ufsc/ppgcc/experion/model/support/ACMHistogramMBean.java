@@ -0,0 +1,24 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+/**
+ * JMX view of an {@link ACMHistogram}
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public interface ACMHistogramMBean {
+
+    long getCount();
+
+    double getMean();
+
+    long getMax();
+
+    long getP50();
+
+    long getP95();
+
+    long getP99();
+
+    void reset();
+}
@@ -0,0 +1,43 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+/**
+ * Pluggable registry of the counters and histograms recorded by the classification and the evidence builder.
+ *
+ * Components resolve their metrics once, when the registry is set, and skip all timing when it is
+ * disabled, so {@link #NOOP} costs a null check per call.
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ * @see ACMMetricsRegistry
+ */
+public interface ACMMetrics {
+
+    /**
+     * Disabled metrics, the default
+     */
+    ACMMetrics NOOP = new ACMMetrics() {
+        public boolean isEnabled() {
+            return false;
+        }
+
+        public ACMHistogram histogram(String name) {
+            return new ACMHistogram();
+        }
+
+        public ACMCounter counter(String name) {
+            return new ACMCounter();
+        }
+    };
+
+    boolean isEnabled();
+
+    /**
+     * Histogram with the name, created on first use
+     */
+    ACMHistogram histogram(String name);
+
+    /**
+     * Counter with the name, created on first use
+     */
+    ACMCounter counter(String name);
+}
@@ -0,0 +1,118 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory metrics, optionally published through JMX as
+ * {@code br.ufsc.ppgcc.experion:type=ACMMetrics,name=<metric>}
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public class ACMMetricsRegistry implements ACMMetrics {
+
+    public static final String JMX_DOMAIN = "br.ufsc.ppgcc.experion";
+
+    private final ConcurrentMap<String, ACMHistogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ACMCounter> counters = new ConcurrentHashMap<>();
+    private volatile MBeanServer server;
+
+    public boolean isEnabled() {
+        return true;
+    }
+
+    public ACMHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> register(key, new ACMHistogram()));
+    }
+
+    public ACMCounter counter(String name) {
+        return counters.computeIfAbsent(name, key -> register(key, new ACMCounter()));
+    }
+
+    /**
+     * Publishes the current and future metrics in the platform MBean server
+     */
+    public synchronized void registerJMX() {
+        registerJMX(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    public synchronized void registerJMX(MBeanServer server) {
+        this.server = server;
+        histograms.forEach(this::register);
+        counters.forEach(this::register);
+    }
+
+    public synchronized void unregisterJMX() {
+        MBeanServer server = this.server;
+        this.server = null;
+        if (server == null) {
+            return;
+        }
+        for (String name : names()) {
+            try {
+                ObjectName objectName = objectName(name);
+                if (server.isRegistered(objectName)) {
+                    server.unregisterMBean(objectName);
+                }
+            } catch (JMException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private <T> T register(String name, T metric) {
+        MBeanServer server = this.server;
+        if (server != null) {
+            try {
+                ObjectName objectName = objectName(name);
+                if (!server.isRegistered(objectName)) {
+                    server.registerMBean(metric, objectName);
+                }
+            } catch (JMException e) {
+                e.printStackTrace();
+            }
+        }
+        return metric;
+    }
+
+    private static ObjectName objectName(String name) throws JMException {
+        return new ObjectName(JMX_DOMAIN + ":type=ACMMetrics,name=" + ObjectName.quote(name));
+    }
+
+    private SortedSet<String> names() {
+        SortedSet<String> names = new TreeSet<>(histograms.keySet());
+        names.addAll(counters.keySet());
+        return names;
+    }
+
+    public Map<String, ACMHistogram> getHistograms() {
+        return Collections.unmodifiableMap(new TreeMap<>(histograms));
+    }
+
+    public Map<String, ACMCounter> getCounters() {
+        return Collections.unmodifiableMap(new TreeMap<>(counters));
+    }
+
+    public void reset() {
+        histograms.values().forEach(ACMHistogram::reset);
+        counters.values().forEach(ACMCounter::reset);
+    }
+
+    /**
+     * One line per metric, sorted by name
+     */
+    public String toString() {
+        StringBuilder output = new StringBuilder();
+        for (String name : names()) {
+            Object metric = histograms.containsKey(name) ? histograms.get(name) : counters.get(name);
+            output.append(name).append(": ").append(metric).append("\n");
+        }
+        return output.toString();
+    }
+}
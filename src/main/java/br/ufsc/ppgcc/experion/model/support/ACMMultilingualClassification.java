@@ -0,0 +1,395 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ACM Classifications of several languages over a single hierarchy.
+ *
+ * The concepts and links are kept once and shared by all languages; each language only adds its labels,
+ * terms and IDF weights, analyzed with its own {@link ACMTextAnalyzer}. English and portuguese are
+ * available by default, and other languages can be registered with the translations of the english labels.
+ * Each language is loaded, and then frozen, on first use.
+ *
+ * The loaded classifications form a {@link Version}, which {@link #reload(Executor)} replaces as a whole:
+ * the next version is loaded in the background and then swapped in atomically. Callers holding the previous
+ * version keep using it until they are done, and reading the current version takes no locks.
+ * Corpus statistics set for a language are blended into its IDF on each load, so a periodic reload keeps
+ * the weights up to date with the evidences seen by the builders. The default classifications are loaded
+ * from the bundled acm.xml, so their reload only picks up new translations and corpus statistics; a revised
+ * acm.xml is read by each reload of classifications created with {@link #ACMMultilingualClassification(Callable)}.
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public class ACMMultilingualClassification {
+
+    public static final String DEFAULT_LANGUAGE = "en";
+
+    /**
+     * Loads a classification for a language, from the sources of a version
+     */
+    private interface Loader {
+        void load(ACMClassification classification, Version version) throws Exception;
+    }
+
+    /**
+     * Term statistics of a language, with the share of their IDF
+     */
+    private static final class CorpusStatistics {
+        private final ACMTermStatistics statistics;
+        private final double weight;
+
+        private CorpusStatistics(ACMTermStatistics statistics, double weight) {
+            this.statistics = statistics;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Classifications loaded from the same sources, over the same hierarchy.
+     * Languages not loaded yet are loaded into the version on first use.
+     */
+    public final class Version {
+        private final long number;
+        private final ConcurrentMap<String, Future<ACMClassification>> classifications = new ConcurrentHashMap<>();
+        private ACMTaxonomy structure;
+        private List<ACMClassification.SKOSConcept> sourceConcepts;
+
+        private Version(long number) {
+            this.number = number;
+        }
+
+        /**
+         * Number of the version, starting at 1 and incremented by each reload
+         */
+        public long getNumber() {
+            return number;
+        }
+
+        public boolean isLoaded(String language) {
+            Future<ACMClassification> classification = classifications.get(language);
+            return classification != null && classification.isDone();
+        }
+
+        /**
+         * Returns the classification of this version for the language, loading it if needed
+         *
+         * @throws IllegalArgumentException if the language was not registered
+         * @throws IOException if the classification could not be loaded
+         */
+        public ACMClassification get(String language) throws IOException {
+            Future<ACMClassification> classification = classifications.get(language);
+            if (classification == null) {
+                Loader loader = loaders.get(language);
+                if (loader == null) {
+                    throw new IllegalArgumentException("Unsupported language: " + language);
+                }
+                FutureTask<ACMClassification> task = new FutureTask<>(() -> load(language, loader));
+                classification = classifications.putIfAbsent(language, task);
+                if (classification == null) {
+                    classification = task;
+                    task.run();
+                }
+            }
+
+            try {
+                return classification.get();
+            } catch (ExecutionException e) {
+                // Allows a later call to retry the load
+                classifications.remove(language, classification);
+                throw new IOException("Could not load the ACM Classification for " + language, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading the ACM Classification for " + language, e);
+            }
+        }
+
+        /**
+         * Returns the classification of this version for the language, or the english one if the language
+         * was not registered
+         */
+        public ACMClassification getOrDefault(String language) throws IOException {
+            return get(language != null && isRegistered(language) ? language : DEFAULT_LANGUAGE);
+        }
+
+        /**
+         * Loaded classifications, by language
+         */
+        private Map<String, ACMClassification> getLoaded() {
+            Map<String, ACMClassification> loaded = new TreeMap<>();
+            classifications.forEach((language, classification) -> {
+                try {
+                    if (classification.isDone()) {
+                        loaded.put(language, classification.get());
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    // Not loaded
+                }
+            });
+            return loaded;
+        }
+
+        private ACMClassification load(String language, Loader loader) throws Exception {
+            ACMClassification classification = new ACMClassification();
+            CorpusStatistics corpus = corpusStatistics.get(language);
+            if (corpus != null) {
+                classification.setCorpusStatistics(corpus.statistics, corpus.weight);
+            }
+            int[] fuzzy = fuzzyMatching.get(language);
+            if (fuzzy != null) {
+                classification.setFuzzyMatching(fuzzy[0], fuzzy[1]);
+            }
+            loader.load(classification, this);
+            synchronized (this) {
+                if (structure == null) {
+                    structure = classification.getTaxonomy();
+                } else {
+                    classification.shareStructure(structure);
+                }
+            }
+            classification.freeze();
+            return classification;
+        }
+
+        /**
+         * Hierarchy of the source, read once for all languages of the version
+         */
+        private synchronized ACMTaxonomy sourceStructure() throws Exception {
+            readSource();
+            return structure;
+        }
+
+        private synchronized List<ACMClassification.SKOSConcept> sourceConcepts() throws Exception {
+            readSource();
+            return sourceConcepts;
+        }
+
+        private synchronized void readSource() throws Exception {
+            if (sourceConcepts != null) {
+                return;
+            }
+            List<ACMClassification.SKOSConcept> concepts = new ArrayList<>();
+            ACMTaxonomy read;
+            try (InputStream classificationXML = source != null ? source.call() : getClass().getResourceAsStream("/acm.xml")) {
+                read = ACMClassification.readSKOS(classificationXML, concepts);
+            }
+            if (structure == null) {
+                structure = read;
+            } else if (!structure.hasSameStructure(read)) {
+                throw new IllegalStateException("Loaded classifications do not match the source ACM Classification");
+            }
+            sourceConcepts = concepts;
+        }
+    }
+
+    private final Callable<InputStream> source;
+    private final ConcurrentMap<String, Loader> loaders = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ACMClassification> provided = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CorpusStatistics> corpusStatistics = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, int[]> fuzzyMatching = new ConcurrentHashMap<>();
+    private final AtomicReference<Version> current = new AtomicReference<>(new Version(1));
+    private final Object reloadLock = new Object();
+    // Held briefly to publish a version or a provided classification, so neither is lost to the other
+    private final Object publishLock = new Object();
+
+    /**
+     * Classifications of the bundled ACM Classification in english and portuguese
+     */
+    public ACMMultilingualClassification() {
+        this.source = null;
+        loaders.put("en", (classification, version) -> classification.loadXML());
+        loaders.put("pt", (classification, version) -> classification.loadXMLInPTBR());
+    }
+
+    /**
+     * Classifications in english and portuguese of another SKOS file, such as a revised acm.xml.
+     * The file is read again by each reload.
+     *
+     * @param source opens the SKOS file
+     */
+    public ACMMultilingualClassification(Callable<InputStream> source) {
+        this.source = source;
+        loaders.put("en", (classification, version) ->
+                classification.loadLabels(version.sourceStructure(), version.sourceConcepts(), "en"));
+        loaders.put("pt", (classification, version) ->
+                classification.loadLabels(version.sourceStructure(), version.sourceConcepts(), "pt"));
+    }
+
+    /**
+     * Registers a language whose labels are translated from the english ones of the source ACM Classification
+     *
+     * @param analyzer stop words and stemming of the language, registered in {@link ACMTextAnalyzer}
+     * @param store    known translations, with the ones obtained from the provider added to it
+     * @param provider translations missing from the store; null uses Google Translate
+     */
+    public void registerLanguage(ACMTextAnalyzer analyzer, TranslationStore store, TranslationProvider provider) {
+        String language = analyzer.getLanguage();
+        ACMTextAnalyzer.register(analyzer);
+        provided.remove(language);
+        loaders.put(language, (classification, version) -> {
+            classification.setTranslationStore(store);
+            classification.setTranslationProvider(provider);
+            classification.loadLabels(version.sourceStructure(), version.sourceConcepts(), language);
+        });
+    }
+
+    /**
+     * Uses an already loaded classification for the language, in the current version and in the following ones
+     */
+    public void put(String language, ACMClassification classification) {
+        synchronized (publishLock) {
+            provided.put(language, classification);
+            current.get().classifications.put(language, CompletableFuture.completedFuture(classification));
+        }
+    }
+
+    /**
+     * Collects the statistics of the evidences of the language classified by the builders, and blends their IDF
+     * into the classifications of the language loaded from then on, e.g. by {@link #reload(Executor)}
+     *
+     * @param weight share of the corpus IDF, from 0 to 1
+     */
+    public void setCorpusStatistics(String language, ACMTermStatistics statistics, double weight) {
+        if (weight < 0 || weight > 1) {
+            throw new IllegalArgumentException("Weight must be between 0 and 1: " + weight);
+        }
+        corpusStatistics.put(language, new CorpusStatistics(statistics, weight));
+    }
+
+    /**
+     * Statistics collected for the language, or null
+     */
+    public ACMTermStatistics getCorpusStatistics(String language) {
+        CorpusStatistics corpus = corpusStatistics.get(language);
+        return corpus == null ? null : corpus.statistics;
+    }
+
+    /**
+     * Resolves the words missing from the labels of the language to their nearest terms, in the classifications
+     * of the language loaded from then on
+     *
+     * @see ACMClassification#setFuzzyMatching(int, int)
+     */
+    public void setFuzzyMatching(String language, int maxDistance, int maxCandidates) {
+        if (maxDistance < 0 || maxCandidates <= 0) {
+            throw new IllegalArgumentException("Invalid fuzzy matching: " + maxDistance + ", " + maxCandidates);
+        }
+        fuzzyMatching.put(language, new int[]{maxDistance, maxCandidates});
+    }
+
+    /**
+     * The current version, to be used for all classifications of a single call
+     */
+    public Version current() {
+        return current.get();
+    }
+
+    public long getVersion() {
+        return current.get().number;
+    }
+
+    public Set<String> getLanguages() {
+        Set<String> languages = new TreeSet<>(loaders.keySet());
+        languages.addAll(current.get().classifications.keySet());
+        return Collections.unmodifiableSet(languages);
+    }
+
+    public boolean isRegistered(String language) {
+        return loaders.containsKey(language) || current.get().classifications.containsKey(language);
+    }
+
+    public boolean isLoaded(String language) {
+        return current.get().isLoaded(language);
+    }
+
+    /**
+     * Returns the classification of the current version for the language, loading it if needed
+     *
+     * @throws IllegalArgumentException if the language was not registered
+     * @throws IOException if the classification could not be loaded
+     */
+    public ACMClassification get(String language) throws IOException {
+        return current.get().get(language);
+    }
+
+    /**
+     * Returns the classification for the language, or the english one if the language was not registered
+     */
+    public ACMClassification getOrDefault(String language) throws IOException {
+        return current.get().getOrDefault(language);
+    }
+
+    /**
+     * Loads the languages of the current version again from their sources, on the executor, and then
+     * replaces the current version. Classifications set with {@link #put(String, ACMClassification)} are kept,
+     * including those set while it runs. Reloads run one at a time, and the current version is kept if the reload fails.
+     *
+     * @return the number of the new version
+     */
+    public CompletableFuture<Long> reload(Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            synchronized (reloadLock) {
+                Version previous = current.get();
+                Version next = new Version(previous.number + 1);
+                for (Map.Entry<String, ACMClassification> loaded : previous.getLoaded().entrySet()) {
+                    String language = loaded.getKey();
+                    if (provided.containsKey(language)) {
+                        continue;
+                    }
+                    Loader loader = loaders.get(language);
+                    Future<ACMClassification> classification;
+                    try {
+                        classification = CompletableFuture.completedFuture(
+                                loader == null ? loaded.getValue() : next.load(language, loader));
+                    } catch (Exception e) {
+                        throw new CompletionException(new IOException("Could not reload the ACM Classification for " + language, e));
+                    }
+                    next.classifications.put(language, classification);
+                }
+                // Classifications put while loading are in the map by now, and later ones go to the next version
+                synchronized (publishLock) {
+                    provided.forEach((language, classification) ->
+                            next.classifications.put(language, CompletableFuture.completedFuture(classification)));
+                    current.set(next);
+                }
+                return next.number;
+            }
+        }, executor);
+    }
+
+    /**
+     * Estimated retained heap of the loaded languages of the current version, with the shared structure
+     * and each {@link ACMTermDictionary} generation they use counted once
+     */
+    public ACMFootprint getFootprint() {
+        ACMFootprint footprint = new ACMFootprint();
+        List<ACMTaxonomy> structures = new ArrayList<>();
+        Set<ACMTermDictionary> dictionaries = Collections.newSetFromMap(new IdentityHashMap<>());
+        current.get().getLoaded().forEach((language, classification) -> {
+            ACMTaxonomy taxonomy = classification.getTaxonomy();
+            dictionaries.add(taxonomy.getDictionary());
+            if (classification.getScorer() != null) {
+                dictionaries.add(classification.getScorer().getDictionary());
+            }
+            boolean shared = structures.stream().anyMatch(structure -> structure.sharesStructureWith(taxonomy));
+            if (!shared) {
+                structures.add(taxonomy);
+            }
+            classification.getFootprint().getComponents().forEach((component, bytes) -> {
+                if (component.equals("structure")) {
+                    footprint.add(component, shared ? 0 : bytes);
+                } else {
+                    footprint.add(language + "." + component, bytes);
+                }
+            });
+        });
+        for (ACMTermDictionary dictionary : dictionaries) {
+            footprint.add("dictionary", dictionary.estimateBytes());
+        }
+        return footprint;
+    }
+}
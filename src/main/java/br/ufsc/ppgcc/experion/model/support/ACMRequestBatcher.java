@@ -0,0 +1,219 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent classification requests of a language into micro-batches, scored together
+ * with {@link ACMClassification#getBatchTopLabels(List, int, double)}.
+ *
+ * The word sets waiting in the queue or being classified are bounded, which is the backpressure of the
+ * callers: a request is rejected when its word sets do not fit, so a few large requests can not hold more
+ * work than many small ones. A single worker takes the first waiting request and the ones arriving within
+ * the maximum delay, up to the maximum batch size. The classification is resolved once per batch, so a
+ * batcher can follow the reloads of an {@link ACMMultilingualClassification}.
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public class ACMRequestBatcher implements AutoCloseable {
+
+    /**
+     * Word sets of a caller, completed with their k best classifications
+     */
+    private static final class Request {
+        private final List<? extends Collection<String>> wordSets;
+        private final int k;
+        private final long enqueued = System.nanoTime();
+        private final CompletableFuture<List<List<ACMClassification.ScoredNode>>> result = new CompletableFuture<>();
+
+        private Request(List<? extends Collection<String>> wordSets, int k) {
+            this.wordSets = wordSets;
+            this.k = k;
+        }
+    }
+
+    private final Supplier<ACMClassification> classification;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final int queueCapacity;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final ACMHistogram queueTime;
+    private final ACMHistogram latency;
+    private final ACMHistogram batchSize;
+    private final ACMCounter rejected;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    /**
+     * @param queueCapacity   word sets waiting or being classified before new requests are rejected
+     * @param maxBatchSize    word sets classified in a single batch, unless a single request has more
+     * @param maxDelayNanos   time a batch waits for more requests after the first one
+     * @param metrics         records the queue time, latency and batch size of the language
+     */
+    public ACMRequestBatcher(ACMClassification classification, int queueCapacity, int maxBatchSize, long maxDelayNanos, ACMMetrics metrics) {
+        this(classification.getLanguage(), () -> classification, queueCapacity, maxBatchSize, maxDelayNanos, metrics);
+    }
+
+    /**
+     * @param classification current classification of the language, resolved at the start of each batch
+     */
+    public ACMRequestBatcher(String language, Supplier<ACMClassification> classification, int queueCapacity, int maxBatchSize,
+                             long maxDelayNanos, ACMMetrics metrics) {
+        this.classification = classification;
+        this.queueCapacity = queueCapacity;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelayNanos;
+
+        String prefix = "batcher." + language + ".";
+        this.queueTime = metrics.histogram(prefix + "queueNanos");
+        this.latency = metrics.histogram(prefix + "latencyNanos");
+        this.batchSize = metrics.histogram(prefix + "batchSize");
+        this.rejected = metrics.counter(prefix + "rejected");
+
+        this.worker = new Thread(this::run, "acm-batcher-" + language);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queues the word sets to be classified in the next batch
+     *
+     * @return the k best classifications of each set of words, in order
+     * @throws RejectedExecutionException if the word sets do not fit in the queue or the batcher was closed
+     * @throws IllegalArgumentException     if there are more word sets than the queue capacity, as they would never fit
+     */
+    public CompletableFuture<List<List<ACMClassification.ScoredNode>>> submit(List<? extends Collection<String>> wordSets, int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        if (wordSets.size() > queueCapacity) {
+            throw new IllegalArgumentException("More word sets than the queue capacity: " + wordSets.size());
+        }
+        if (!running || !reserve(wordSets.size())) {
+            rejected.increment();
+            throw new RejectedExecutionException("Classification queue is full");
+        }
+        Request request = new Request(wordSets, k);
+        queue.add(request);
+        return request.result;
+    }
+
+    private boolean reserve(int size) {
+        while (true) {
+            int current = pending.get();
+            if (current + size > queueCapacity) {
+                return false;
+            }
+            if (pending.compareAndSet(current, current + size)) {
+                return true;
+            }
+        }
+    }
+
+    public ACMClassification getClassification() {
+        return classification.get();
+    }
+
+    /**
+     * Word sets waiting or being classified
+     */
+    public int getQueueDepth() {
+        return pending.get();
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    private void run() {
+        List<Request> batch = new ArrayList<>();
+        while (running) {
+            try {
+                Request first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                int size = first.wordSets.size();
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (size < maxBatchSize) {
+                    Request next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    size += next.wordSets.size();
+                }
+                try {
+                    classify(batch, size);
+                } finally {
+                    pending.addAndGet(-size);
+                }
+            } catch (InterruptedException e) {
+                // Closed; requests already taken for the batch are failed as the waiting ones
+                for (Request request : batch) {
+                    request.result.completeExceptionally(new RejectedExecutionException("Classification batcher was closed"));
+                }
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void classify(List<Request> batch, int size) {
+        long start = System.nanoTime();
+        List<Collection<String>> wordSets = new ArrayList<>(size);
+        int k = 1;
+        for (Request request : batch) {
+            queueTime.record(start - request.enqueued);
+            wordSets.addAll(request.wordSets);
+            k = Math.max(k, request.k);
+        }
+        batchSize.record(size);
+
+        List<List<ACMClassification.ScoredNode>> topLabels;
+        try {
+            topLabels = classification.get().getBatchTopLabels(wordSets, k, 0);
+        } catch (RuntimeException e) {
+            for (Request request : batch) {
+                request.result.completeExceptionally(e);
+            }
+            return;
+        }
+
+        // The k best of a request are the first ones of the batch, which used the largest k
+        int offset = 0;
+        for (Request request : batch) {
+            List<List<ACMClassification.ScoredNode>> result = new ArrayList<>(request.wordSets.size());
+            for (List<ACMClassification.ScoredNode> nodes : topLabels.subList(offset, offset + request.wordSets.size())) {
+                result.add(nodes.size() > request.k ? new ArrayList<>(nodes.subList(0, request.k)) : nodes);
+            }
+            offset += request.wordSets.size();
+            request.result.complete(result);
+            latency.record(System.nanoTime() - request.enqueued);
+        }
+    }
+
+    /**
+     * Stops the worker; requests still waiting are failed
+     */
+    public void close() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Request request;
+        while ((request = queue.poll()) != null) {
+            request.result.completeExceptionally(new RejectedExecutionException("Classification batcher was closed"));
+        }
+    }
+}
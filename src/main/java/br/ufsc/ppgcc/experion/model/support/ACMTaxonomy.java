@@ -0,0 +1,473 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import java.util.*;
+
+/**
+ * Immutable, array based hierarchy of the ACM Classification.
+ *
+ * Concepts are identified by int ids, in the order they were added, and their broader (parent) and
+ * narrower (child) concepts are kept as compressed index arrays. The first broader concept of each concept
+ * is its primary parent, which defines its depth and full labels.
+ *
+ * Label words are kept as sorted ids of each concept, in the {@link ACMTermDictionary} generation current
+ * when the labels were loaded. Full labels and full true
+ * labels are not copied into each concept, but read from the primary path to the root when asked for.
+ *
+ * The primary parents form a forest whose preorder (Euler tour) intervals answer ancestor checks and
+ * subtree queries in O(1). A topological order of all the broader links allows single pass
+ * aggregations over the whole hierarchy.
+ *
+ * The structure is language independent: taxonomies with the labels of other languages share it,
+ * see {@link #withLabels(List, List)}.
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public final class ACMTaxonomy {
+
+    public static final int NO_PARENT = -1;
+
+    /**
+     * Collects the concepts and broader links of a taxonomy; links may reference concepts added later,
+     * and links to concepts never added are ignored
+     */
+    public static final class Builder {
+        private final List<String> ids = new ArrayList<>();
+        private final List<String> trueLabels = new ArrayList<>();
+        private final List<Collection<String>> labels = new ArrayList<>();
+        private final Map<String, Integer> index = new HashMap<>();
+        private final List<String[]> broader = new ArrayList<>();
+
+        /**
+         * @return the id of the concept
+         */
+        public int addConcept(String id, String trueLabel, Collection<String> labels) {
+            if (index.containsKey(id)) {
+                throw new IllegalArgumentException("Duplicated concept: " + id);
+            }
+            index.put(id, ids.size());
+            this.ids.add(id);
+            this.trueLabels.add(trueLabel);
+            this.labels.add(labels);
+            return ids.size() - 1;
+        }
+
+        /**
+         * Links the concept to a broader one; the first link of a concept is its primary parent
+         */
+        public void addBroader(String id, String broaderId) {
+            broader.add(new String[]{id, broaderId});
+        }
+
+        public int size() {
+            return ids.size();
+        }
+
+        public ACMTaxonomy build() {
+            Structure structure = new Structure(this);
+            return new ACMTaxonomy(structure, trueLabels.toArray(new String[0]), labels);
+        }
+    }
+
+    /**
+     * Concepts and links, shared by the taxonomies of all languages
+     */
+    private static final class Structure {
+        private final String[] ids;
+        private final Map<String, Integer> index;
+        private final int[] primaryParents;
+        private final int[] parentOffsets;
+        private final int[] parents;
+        private final int[] childOffsets;
+        private final int[] children;
+        private final int[] depths;
+        private final int[] preorder;
+        private final int[] enter;
+        private final int[] exit;
+        private final int[] topologicalOrder;
+
+        private Structure(Builder builder) {
+            int size = builder.ids.size();
+            this.ids = builder.ids.toArray(new String[0]);
+            this.index = new HashMap<>(builder.index);
+
+            // Dangling, duplicated and self links are ignored
+            int[] linkConcepts = new int[builder.broader.size()];
+            int[] linkParents = new int[builder.broader.size()];
+            int links = 0;
+            Set<Long> seen = new HashSet<>();
+            for (String[] link : builder.broader) {
+                Integer concept = index.get(link[0]);
+                Integer parent = index.get(link[1]);
+                if (concept != null && parent != null && !concept.equals(parent) && seen.add(((long) concept << 32) | parent)) {
+                    linkConcepts[links] = concept;
+                    linkParents[links] = parent;
+                    links++;
+                }
+            }
+
+            this.parentOffsets = offsets(linkConcepts, links, size);
+            this.parents = group(linkConcepts, linkParents, links, parentOffsets);
+            this.childOffsets = offsets(linkParents, links, size);
+            this.children = group(linkParents, linkConcepts, links, childOffsets);
+
+            this.primaryParents = new int[size];
+            for (int concept = 0; concept < size; concept++) {
+                primaryParents[concept] = parentOffsets[concept] < parentOffsets[concept + 1] ? parents[parentOffsets[concept]] : NO_PARENT;
+            }
+
+            // Preorder of the primary parent forest, with roots and children in insertion order
+            this.preorder = new int[size];
+            this.enter = new int[size];
+            this.exit = new int[size];
+            this.depths = new int[size];
+            int[] stack = new int[size];
+            int top = 0;
+            for (int concept = size - 1; concept >= 0; concept--) {
+                if (primaryParents[concept] == NO_PARENT) {
+                    stack[top++] = concept;
+                }
+            }
+            int position = 0;
+            while (top > 0) {
+                int concept = stack[--top];
+                int parent = primaryParents[concept];
+                depths[concept] = parent == NO_PARENT ? 1 : depths[parent] + 1;
+                enter[concept] = position;
+                preorder[position++] = concept;
+
+                for (int i = childOffsets[concept + 1] - 1; i >= childOffsets[concept]; i--) {
+                    if (primaryParents[children[i]] == concept) {
+                        stack[top++] = children[i];
+                    }
+                }
+            }
+            if (position < size) {
+                throw new IllegalArgumentException("Cycle in the broader concepts of the taxonomy");
+            }
+
+            int[] subtreeSizes = new int[size];
+            Arrays.fill(subtreeSizes, 1);
+            for (int i = size - 1; i >= 0; i--) {
+                int concept = preorder[i];
+                if (primaryParents[concept] != NO_PARENT) {
+                    subtreeSizes[primaryParents[concept]] += subtreeSizes[concept];
+                }
+            }
+            for (int concept = 0; concept < size; concept++) {
+                exit[concept] = enter[concept] + subtreeSizes[concept];
+            }
+
+            // Broader concepts before narrower ones, following all links
+            this.topologicalOrder = new int[size];
+            int[] pendingParents = new int[size];
+            int head = 0;
+            int tail = 0;
+            for (int concept = 0; concept < size; concept++) {
+                pendingParents[concept] = parentOffsets[concept + 1] - parentOffsets[concept];
+                if (pendingParents[concept] == 0) {
+                    topologicalOrder[tail++] = concept;
+                }
+            }
+            while (head < tail) {
+                int concept = topologicalOrder[head++];
+                for (int i = childOffsets[concept]; i < childOffsets[concept + 1]; i++) {
+                    if (--pendingParents[children[i]] == 0) {
+                        topologicalOrder[tail++] = children[i];
+                    }
+                }
+            }
+            if (tail < size) {
+                throw new IllegalArgumentException("Cycle in the broader concepts of the taxonomy");
+            }
+        }
+
+        private boolean sameAs(Structure other) {
+            return this == other || (Arrays.equals(ids, other.ids)
+                    && Arrays.equals(parentOffsets, other.parentOffsets) && Arrays.equals(parents, other.parents)
+                    && Arrays.equals(childOffsets, other.childOffsets) && Arrays.equals(children, other.children));
+        }
+    }
+
+    /**
+     * Read-only set of label words, over their sorted dictionary ids
+     */
+    private static final class LabelSet extends AbstractSet<String> {
+        private final ACMTermDictionary dictionary;
+        private final int[] ids;
+
+        private LabelSet(ACMTermDictionary dictionary, int[] ids) {
+            this.dictionary = dictionary;
+            this.ids = ids;
+        }
+
+        public boolean contains(Object word) {
+            return word instanceof String && Arrays.binarySearch(ids, dictionary.find((String) word)) >= 0;
+        }
+
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int next = 0;
+
+                public boolean hasNext() {
+                    return next < ids.length;
+                }
+
+                public String next() {
+                    if (next >= ids.length) {
+                        throw new NoSuchElementException();
+                    }
+                    return dictionary.term(ids[next++]);
+                }
+            };
+        }
+
+        public int size() {
+            return ids.length;
+        }
+    }
+
+    private final Structure structure;
+    private final String[] trueLabels;
+    private final ACMTermDictionary dictionary;
+    private final int[][] labels;
+
+    private ACMTaxonomy(Structure structure, String[] trueLabels, List<? extends Collection<String>> labels) {
+        int size = structure.ids.length;
+        if (trueLabels.length != size || labels.size() != size) {
+            throw new IllegalArgumentException("Expected the labels of " + size + " concepts");
+        }
+        this.structure = structure;
+        this.trueLabels = trueLabels;
+        this.dictionary = ACMTermDictionary.current();
+        this.labels = new int[size][];
+        for (int concept = 0; concept < size; concept++) {
+            this.labels[concept] = dictionary.ids(labels.get(concept));
+        }
+    }
+
+    private ACMTaxonomy(Structure structure, ACMTaxonomy labels) {
+        this.structure = structure;
+        this.trueLabels = labels.trueLabels;
+        this.dictionary = labels.dictionary;
+        this.labels = labels.labels;
+    }
+
+    /**
+     * Start of the links of each concept, for links grouped by the given end
+     */
+    private static int[] offsets(int[] keys, int links, int size) {
+        int[] offsets = new int[size + 1];
+        for (int i = 0; i < links; i++) {
+            offsets[keys[i] + 1]++;
+        }
+        for (int i = 0; i < size; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        return offsets;
+    }
+
+    /**
+     * Values of the links grouped by key, keeping the insertion order within each group
+     */
+    private static int[] group(int[] keys, int[] values, int links, int[] offsets) {
+        int[] grouped = new int[links];
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int i = 0; i < links; i++) {
+            grouped[next[keys[i]]++] = values[i];
+        }
+        return grouped;
+    }
+
+    /**
+     * Taxonomy with the same structure and other labels, e.g. in another language
+     *
+     * @param trueLabels true label of each concept
+     * @param labels     label words of each concept
+     */
+    public ACMTaxonomy withLabels(List<String> trueLabels, List<? extends Collection<String>> labels) {
+        return new ACMTaxonomy(structure, trueLabels.toArray(new String[0]), labels);
+    }
+
+    /**
+     * Whether both taxonomies have the same concepts and links, in the same order
+     */
+    public boolean hasSameStructure(ACMTaxonomy other) {
+        return structure.sameAs(other.structure);
+    }
+
+    /**
+     * Whether both taxonomies use the same structure instance
+     */
+    boolean sharesStructureWith(ACMTaxonomy other) {
+        return structure == other.structure;
+    }
+
+    /**
+     * This taxonomy sharing the structure of the other one, when they are the same, so it is kept only once
+     */
+    public ACMTaxonomy withStructureOf(ACMTaxonomy other) {
+        if (structure == other.structure || !hasSameStructure(other)) {
+            return this;
+        }
+        return new ACMTaxonomy(other.structure, this);
+    }
+
+    public int size() {
+        return structure.ids.length;
+    }
+
+    /**
+     * Int id of the concept, or -1 if it is not in the taxonomy
+     */
+    public int getConcept(String id) {
+        Integer concept = structure.index.get(id);
+        return concept == null ? -1 : concept;
+    }
+
+    public String getId(int concept) {
+        return structure.ids[concept];
+    }
+
+    public String getTrueLabel(int concept) {
+        return trueLabels[concept];
+    }
+
+    /**
+     * First broader concept, or {@link #NO_PARENT} for a root
+     */
+    public int getParent(int concept) {
+        return structure.primaryParents[concept];
+    }
+
+    /**
+     * All broader concepts, the primary parent first
+     */
+    public int[] getParents(int concept) {
+        return Arrays.copyOfRange(structure.parents, structure.parentOffsets[concept], structure.parentOffsets[concept + 1]);
+    }
+
+    /**
+     * All narrower concepts, including those with another primary parent
+     */
+    public int[] getChildren(int concept) {
+        return Arrays.copyOfRange(structure.children, structure.childOffsets[concept], structure.childOffsets[concept + 1]);
+    }
+
+    /**
+     * Number of concepts in the primary path from the root to the concept, 1 for a root
+     */
+    public int getDepth(int concept) {
+        return structure.depths[concept];
+    }
+
+    /**
+     * True labels of the primary path from the root, separated by " -> "
+     */
+    public String getFullTrueLabel(int concept) {
+        int parent = structure.primaryParents[concept];
+        if (parent == NO_PARENT) {
+            return trueLabels[concept];
+        }
+        return getFullTrueLabel(parent) + " -> " + trueLabels[concept];
+    }
+
+    /**
+     * Label words of the concept
+     */
+    public Set<String> getLabels(int concept) {
+        return new LabelSet(dictionary, labels[concept]);
+    }
+
+    /**
+     * Label words of the concept and of its primary ancestors
+     */
+    public Set<String> getFullLabels(int concept) {
+        int[] ids = labels[concept];
+        for (int parent = structure.primaryParents[concept]; parent != NO_PARENT; parent = structure.primaryParents[parent]) {
+            ids = union(ids, labels[parent]);
+        }
+        return new LabelSet(dictionary, ids);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        int[] union = new int[a.length + b.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                union[size++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                union[size++] = b[j++];
+            } else {
+                union[size++] = a[i++];
+                j++;
+            }
+        }
+        return size == union.length ? union : Arrays.copyOf(union, size);
+    }
+
+    /**
+     * Whether the first concept is in the primary path from the root to the second (a concept is its own ancestor)
+     */
+    public boolean isAncestor(int ancestor, int concept) {
+        return structure.enter[ancestor] <= structure.enter[concept] && structure.enter[concept] < structure.exit[ancestor];
+    }
+
+    /**
+     * Number of concepts with the concept in their primary path, including itself
+     */
+    public int getSubtreeSize(int concept) {
+        return structure.exit[concept] - structure.enter[concept];
+    }
+
+    /**
+     * Concepts with the concept in their primary path, in preorder, starting with the concept
+     */
+    public int[] getSubtree(int concept) {
+        return Arrays.copyOfRange(structure.preorder, structure.enter[concept], structure.exit[concept]);
+    }
+
+    /**
+     * All concepts, each one after all of its broader concepts
+     */
+    public int[] getTopologicalOrder() {
+        return structure.topologicalOrder.clone();
+    }
+
+    /**
+     * All concepts in preorder of the primary parent forest
+     */
+    public int[] getPreorder() {
+        return structure.preorder.clone();
+    }
+
+    /**
+     * Estimated heap of the language independent structure, which may be shared with other taxonomies
+     */
+    public long estimateStructureBytes() {
+        long bytes = ACMFootprint.strings(structure.ids) + ACMFootprint.hashMap(structure.ids.length)
+                + (long) structure.ids.length * ACMFootprint.BOXED;
+        for (int[] values : new int[][]{structure.primaryParents, structure.parentOffsets, structure.parents,
+                structure.childOffsets, structure.children, structure.depths, structure.preorder, structure.enter,
+                structure.exit, structure.topologicalOrder}) {
+            bytes += ACMFootprint.array(values.length, ACMFootprint.INT);
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimated heap of the true labels and label ids of the concepts
+     */
+    /**
+     * Dictionary generation of the label words
+     */
+    ACMTermDictionary getDictionary() {
+        return dictionary;
+    }
+
+    public long estimateLabelBytes() {
+        return ACMFootprint.strings(trueLabels) + ACMFootprint.ints(labels);
+    }
+}
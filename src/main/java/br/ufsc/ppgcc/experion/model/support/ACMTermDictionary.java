@@ -0,0 +1,143 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Dictionary of the label words and stemmed terms of the loaded ACM Classifications.
+ *
+ * Each distinct string is kept once and gets a stable int id, so labels can be stored as int arrays and
+ * classifications loaded by different tenants or in different languages share their strings.
+ * Ids are only valid in the dictionary that gave them, in the running JVM, and must not be persisted.
+ *
+ * Terms are only added when the labels of a classification are loaded; queries look terms up without
+ * adding them. As ids must stay valid for every classification still in use, a dictionary never removes
+ * terms. Instead, dictionaries are generations: each taxonomy and scorer keeps the generation it took its
+ * ids from, and once the current generation has experion.acm.dictionary.maxTerms terms
+ * ({@value #DEFAULT_MAX_TERMS} by default), the next loads start a new one. A generation is then reclaimed
+ * with the last classification using it, so revised vocabularies picked up by reloads do not accumulate.
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public final class ACMTermDictionary {
+
+    public static final int UNKNOWN = -1;
+    public static final int DEFAULT_MAX_TERMS = 1 << 18;
+
+    private static final int maxTerms = Integer.getInteger("experion.acm.dictionary.maxTerms", DEFAULT_MAX_TERMS);
+    private static ACMTermDictionary current = new ACMTermDictionary();
+
+    private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] terms = new String[1024];
+    private int size = 0;
+
+    private ACMTermDictionary() {
+    }
+
+    /**
+     * Generation new labels take their ids from, started anew once the previous one is full
+     */
+    public static synchronized ACMTermDictionary current() {
+        if (current.size() >= maxTerms) {
+            current = new ACMTermDictionary();
+        }
+        return current;
+    }
+
+    /**
+     * Starts a new generation for the classifications loaded from then on, e.g. after a reload with a revised
+     * vocabulary; the previous one is reclaimed with the last classification using it
+     */
+    public static synchronized void newGeneration() {
+        current = new ACMTermDictionary();
+    }
+
+    /**
+     * Terms of a generation before the next loads start a new one; a generation may exceed it while
+     * a classification is loaded
+     */
+    public static int getMaxTerms() {
+        return maxTerms;
+    }
+
+    /**
+     * Id of the term, adding it to the dictionary if needed
+     */
+    public int id(String term) {
+        Integer id = ids.get(term);
+        return id != null ? id : add(term);
+    }
+
+    private synchronized int add(String term) {
+        Integer id = ids.get(term);
+        if (id != null) {
+            return id;
+        }
+        if (size == terms.length) {
+            terms = Arrays.copyOf(terms, size * 2);
+        }
+        // The term is stored before its id is published
+        terms[size] = term;
+        ids.put(term, size);
+        return size++;
+    }
+
+    /**
+     * Id of the term, or {@link #UNKNOWN} if it is not in the dictionary
+     */
+    public int find(String term) {
+        Integer id = ids.get(term);
+        return id == null ? UNKNOWN : id;
+    }
+
+    public String term(int id) {
+        return terms[id];
+    }
+
+    /**
+     * The instance of the term kept by the dictionary
+     */
+    public String intern(String term) {
+        return term(id(term));
+    }
+
+    /**
+     * Sorted, distinct ids of the terms
+     */
+    public int[] ids(Iterable<String> terms) {
+        int[] result = new int[16];
+        int count = 0;
+        for (String term : terms) {
+            if (count == result.length) {
+                result = Arrays.copyOf(result, count * 2);
+            }
+            result[count++] = id(term);
+        }
+        Arrays.sort(result, 0, count);
+
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || result[distinct - 1] != result[i]) {
+                result[distinct++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Estimated heap of the dictionary and of its strings
+     */
+    public synchronized long estimateBytes() {
+        long bytes = ACMFootprint.array(terms.length, ACMFootprint.REFERENCE) + ACMFootprint.hashMap(size);
+        for (int i = 0; i < size; i++) {
+            bytes += ACMFootprint.string(terms[i]) + ACMFootprint.BOXED;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,348 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import java.util.*;
+
+/**
+ * TF-IDF scoring of the ACM Classification nodes over primitive sparse vectors.
+ *
+ * Every stemmed term is interned to an int id (in alphabetical order) and each node keeps its
+ * full label terms as a sorted id array. Terms are looked up through the {@link ACMTermDictionary} generation
+ * current when the scorer was built, which also keeps their strings. A query is scored against the nodes sharing at least
+ * one term with it, by merging both sorted arrays, with the formula used by the classification:
+ * {@code level * |common| * sum(idf(common)) * |common|}.
+ *
+ * The nodes of each term are kept as a CSR (compressed sparse row) term x node matrix, also used by
+ * {@link ACMBatchScorer} to score many queries at once.
+ *
+ * Scoring does not allocate: candidates are written into per-thread buffers.
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public final class ACMTermScorer {
+
+    /**
+     * Candidates of the last query scored by the current thread
+     */
+    public static final class Candidates {
+        private final int[] nodes;
+        private final double[] scores;
+        private final int[] stamps;
+        private int stamp = 0;
+        private int size = 0;
+
+        private Candidates(int nodeCount) {
+            this.nodes = new int[nodeCount];
+            this.scores = new double[nodeCount];
+            this.stamps = new int[nodeCount];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Node index, in taxonomy order, of the i-th candidate
+         */
+        public int node(int i) {
+            return nodes[i];
+        }
+
+        public double score(int i) {
+            return scores[i];
+        }
+    }
+
+    private final ACMTermDictionary dictionary;
+    private final String[] terms;
+    private final int[] termIds;
+    private final double[] idfs;
+    private final int[] levels;
+    private final int[][] nodeTerms;
+    private final int[] postingOffsets;
+    private final int[] postings;
+    private final ThreadLocal<Candidates> candidates;
+    private final ACMBatchScorer batchScorer;
+
+    /**
+     * @param stemmedLabels stemmed full labels of each node, in taxonomy order
+     * @param levels        level of each node
+     * @param idfs          IDF of each stemmed term; terms without one weigh 0
+     */
+    ACMTermScorer(List<? extends Collection<String>> stemmedLabels, int[] levels, Map<String, Double> idfs) {
+        SortedSet<String> vocabulary = new TreeSet<>();
+        stemmedLabels.forEach(vocabulary::addAll);
+
+        this.dictionary = ACMTermDictionary.current();
+        this.terms = vocabulary.toArray(new String[0]);
+        this.idfs = new double[terms.length];
+        int[] dictionaryIds = new int[terms.length];
+        int maxId = -1;
+        for (int i = 0; i < terms.length; i++) {
+            Double idf = idfs.get(terms[i]);
+            this.idfs[i] = idf == null ? 0.0 : idf;
+            dictionaryIds[i] = dictionary.id(terms[i]);
+            terms[i] = dictionary.term(dictionaryIds[i]);
+            maxId = Math.max(maxId, dictionaryIds[i]);
+        }
+
+        // Dictionary id to term id
+        this.termIds = new int[maxId + 1];
+        Arrays.fill(termIds, -1);
+        for (int i = 0; i < terms.length; i++) {
+            termIds[dictionaryIds[i]] = i;
+        }
+
+        this.levels = levels.clone();
+        this.nodeTerms = new int[stemmedLabels.size()][];
+        this.postingOffsets = new int[terms.length + 1];
+        for (int node = 0; node < nodeTerms.length; node++) {
+            nodeTerms[node] = encode(stemmedLabels.get(node));
+            for (int term : nodeTerms[node]) {
+                postingOffsets[term + 1]++;
+            }
+        }
+        for (int term = 0; term < terms.length; term++) {
+            postingOffsets[term + 1] += postingOffsets[term];
+        }
+
+        // Nodes of each term in taxonomy order
+        this.postings = new int[postingOffsets[terms.length]];
+        int[] next = Arrays.copyOf(postingOffsets, terms.length);
+        for (int node = 0; node < nodeTerms.length; node++) {
+            for (int term : nodeTerms[node]) {
+                postings[next[term]++] = node;
+            }
+        }
+
+        int nodeCount = nodeTerms.length;
+        this.candidates = ThreadLocal.withInitial(() -> new Candidates(nodeCount));
+        this.batchScorer = new ACMBatchScorer(postingOffsets, postings, this.idfs, this.levels);
+    }
+
+    /**
+     * Sorted ids of the known terms in the collection; unknown terms are ignored
+     */
+    public int[] encode(Collection<String> stemmedTerms) {
+        int[] ids = new int[stemmedTerms.size()];
+        int size = 0;
+        for (String term : stemmedTerms) {
+            int id = getTermId(term);
+            if (id >= 0) {
+                ids[size++] = id;
+            }
+        }
+        Arrays.sort(ids, 0, size);
+
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return distinct == ids.length ? ids : Arrays.copyOf(ids, distinct);
+    }
+
+    /**
+     * Scores every node sharing at least one term with the query
+     *
+     * @param query sorted term ids, as returned by {@link #encode(Collection)}
+     * @return the candidates, valid until the next call in the same thread
+     */
+    public Candidates score(int[] query) {
+        Candidates result = candidates.get();
+        result.size = 0;
+        if (++result.stamp == 0) {
+            Arrays.fill(result.stamps, 0);
+            result.stamp = 1;
+        }
+
+        for (int term : query) {
+            for (int i = postingOffsets[term]; i < postingOffsets[term + 1]; i++) {
+                int node = postings[i];
+                if (result.stamps[node] != result.stamp) {
+                    result.stamps[node] = result.stamp;
+                    result.nodes[result.size] = node;
+                    result.scores[result.size] = score(query, node);
+                    result.size++;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Selects the k best candidates with a positive score of at least minScore, using a bounded
+     * heap instead of sorting all candidates. Ties are ranked in taxonomy order.
+     *
+     * @return positions of the selected candidates, best first
+     */
+    public int[] top(Candidates candidates, int k, double minScore) {
+        return top(candidates.nodes, candidates.scores, candidates.size, k, minScore);
+    }
+
+    /**
+     * Same as {@link #top(Candidates, int, double)}, over the first size nodes and scores
+     */
+    static int[] top(int[] nodes, double[] scores, int size, int k, double minScore) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+
+        // Min-heap with the worst selected candidate at the root
+        int[] heap = new int[Math.min(k, size)];
+        int selected = 0;
+        for (int i = 0; i < size; i++) {
+            double score = scores[i];
+            if (score <= 0 || score < minScore) {
+                continue;
+            }
+            if (selected < heap.length) {
+                heap[selected] = i;
+                siftUp(nodes, scores, heap, selected++);
+            } else if (better(nodes, scores, i, heap[0])) {
+                heap[0] = i;
+                siftDown(nodes, scores, heap, 0, selected);
+            }
+        }
+
+        for (int end = selected - 1; end > 0; end--) {
+            int worst = heap[0];
+            heap[0] = heap[end];
+            heap[end] = worst;
+            siftDown(nodes, scores, heap, 0, end);
+        }
+        return selected == heap.length ? heap : Arrays.copyOf(heap, selected);
+    }
+
+    private static boolean better(int[] nodes, double[] scores, int a, int b) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && nodes[a] < nodes[b]);
+    }
+
+    private static void siftUp(int[] nodes, double[] scores, int[] heap, int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (!better(nodes, scores, heap[parent], heap[position])) {
+                break;
+            }
+            int swap = heap[parent];
+            heap[parent] = heap[position];
+            heap[position] = swap;
+            position = parent;
+        }
+    }
+
+    private static void siftDown(int[] nodes, double[] scores, int[] heap, int position, int size) {
+        while (true) {
+            int worst = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && better(nodes, scores, heap[worst], heap[left])) {
+                worst = left;
+            }
+            if (right < size && better(nodes, scores, heap[worst], heap[right])) {
+                worst = right;
+            }
+            if (worst == position) {
+                return;
+            }
+            int swap = heap[worst];
+            heap[worst] = heap[position];
+            heap[position] = swap;
+            position = worst;
+        }
+    }
+
+    /**
+     * Score of a single node for the query
+     */
+    public double score(int[] query, int node) {
+        int[] labels = nodeTerms[node];
+        int common = 0;
+        double idfSum = 0.0;
+        for (int i = 0, j = 0; i < query.length && j < labels.length; ) {
+            if (query[i] < labels[j]) {
+                i++;
+            } else if (query[i] > labels[j]) {
+                j++;
+            } else {
+                common++;
+                idfSum += idfs[query[i]];
+                i++;
+                j++;
+            }
+        }
+        return levels[node] * common * (idfSum * common);
+    }
+
+    /**
+     * Terms shared by the query and the node, for debugging
+     */
+    public List<String> commonTerms(int[] query, int node) {
+        List<String> common = new ArrayList<>();
+        for (int term : query) {
+            if (Arrays.binarySearch(nodeTerms[node], term) >= 0) {
+                common.add(terms[term]);
+            }
+        }
+        return common;
+    }
+
+    /**
+     * Scorer of many queries at once, with the same results as {@link #score(int[])} and {@link #top(Candidates, int, double)}
+     */
+    public ACMBatchScorer getBatchScorer() {
+        return batchScorer;
+    }
+
+    public int getTermCount() {
+        return terms.length;
+    }
+
+    public int getNodeCount() {
+        return nodeTerms.length;
+    }
+
+    public String getTerm(int id) {
+        return terms[id];
+    }
+
+    /**
+     * Id of the term, or -1 if it is not in the vocabulary
+     */
+    public int getTermId(String term) {
+        int id = dictionary.find(term);
+        return id >= 0 && id < termIds.length ? termIds[id] : -1;
+    }
+
+    public double getIdf(int id) {
+        return idfs[id];
+    }
+
+    /**
+     * Sorted ids of the stemmed full label terms of the node
+     */
+    int[] getNodeTerms(int node) {
+        return nodeTerms[node];
+    }
+
+    /**
+     * Dictionary generation of the terms
+     */
+    ACMTermDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Estimated heap of the scorer, without the term strings kept by the {@link ACMTermDictionary}
+     */
+    long estimateBytes() {
+        return ACMFootprint.array(terms.length, ACMFootprint.REFERENCE)
+                + ACMFootprint.array(termIds.length, ACMFootprint.INT)
+                + ACMFootprint.array(idfs.length, ACMFootprint.DOUBLE)
+                + ACMFootprint.array(levels.length, ACMFootprint.INT)
+                + ACMFootprint.ints(nodeTerms)
+                + ACMFootprint.array(postingOffsets.length, ACMFootprint.INT)
+                + ACMFootprint.array(postings.length, ACMFootprint.INT);
+    }
+}
@@ -0,0 +1,252 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Document frequencies of the stemmed terms of a corpus, such as the keywords of the evidences classified
+ * by a builder, in a fixed amount of memory.
+ *
+ * Frequencies are kept in a count-min sketch with conservative updates, which may overestimate a term but
+ * never underestimates it, and the most frequent terms are also tracked as heavy hitters. The resulting IDF
+ * can be blended into the IDF of a classification, computed from its own labels only, with
+ * {@link ACMClassification#setCorpusStatistics(ACMTermStatistics, double)}.
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public class ACMTermStatistics {
+
+    static final int MAGIC = 0x41434D54;
+    static final int VERSION = 1;
+
+    public static final int DEFAULT_DEPTH = 4;
+    public static final int DEFAULT_WIDTH = 1 << 16;
+    public static final int DEFAULT_HEAVY_HITTERS = 1024;
+
+    /**
+     * Frequent term, with its count when it was last queued
+     */
+    private static final class HeavyHitter {
+        private final String term;
+        private long count;
+        private long queued;
+
+        private HeavyHitter(String term, long count) {
+            this.term = term;
+            this.count = count;
+            this.queued = count;
+        }
+    }
+
+    private final int depth;
+    private final int width;
+    private final int[][] counters;
+    private final int maxHeavyHitters;
+    private final Map<String, HeavyHitter> heavyHitters = new HashMap<>();
+    private final PriorityQueue<HeavyHitter> leastFrequent = new PriorityQueue<>(Comparator.comparingLong(hitter -> hitter.queued));
+    private long documents;
+
+    public ACMTermStatistics() {
+        this(DEFAULT_DEPTH, DEFAULT_WIDTH, DEFAULT_HEAVY_HITTERS);
+    }
+
+    /**
+     * @param depth           rows of the sketch; each one lowers the chance of an overestimate
+     * @param width           counters per row, rounded up to a power of two; more counters give smaller overestimates
+     * @param maxHeavyHitters most frequent terms tracked by name
+     */
+    public ACMTermStatistics(int depth, int width, int maxHeavyHitters) {
+        if (depth <= 0 || width <= 0 || maxHeavyHitters < 0) {
+            throw new IllegalArgumentException("Invalid sketch size: " + depth + "x" + width + ", " + maxHeavyHitters);
+        }
+        this.depth = depth;
+        this.width = Math.max(1, Integer.highestOneBit(width - 1) << 1);
+        this.counters = new int[depth][this.width];
+        this.maxHeavyHitters = maxHeavyHitters;
+    }
+
+    /**
+     * Adds a document, counting each of its distinct terms once
+     */
+    public synchronized void addDocument(Collection<String> terms) {
+        documents++;
+        for (String term : terms instanceof Set ? terms : new HashSet<>(terms)) {
+            add(term);
+        }
+    }
+
+    /**
+     * Adds each of the documents, as {@link #addDocument(Collection)}
+     */
+    public synchronized void addDocuments(List<? extends Collection<String>> documents) {
+        for (Collection<String> terms : documents) {
+            addDocument(terms);
+        }
+    }
+
+    private void add(String term) {
+        int hash = term.hashCode();
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row][index(row, hash)]);
+        }
+        if (estimate == Integer.MAX_VALUE) {
+            return;
+        }
+        // Conservative update: only the counters below the new estimate are raised
+        estimate++;
+        for (int row = 0; row < depth; row++) {
+            int column = index(row, hash);
+            if (counters[row][column] < estimate) {
+                counters[row][column] = estimate;
+            }
+        }
+
+        HeavyHitter hitter = heavyHitters.get(term);
+        if (hitter != null) {
+            hitter.count++;
+        } else if (heavyHitters.size() < maxHeavyHitters) {
+            track(term, estimate);
+        } else if (maxHeavyHitters > 0 && estimate > leastFrequent().count) {
+            heavyHitters.remove(leastFrequent.poll().term);
+            track(term, estimate);
+        }
+    }
+
+    private void track(String term, long count) {
+        HeavyHitter hitter = new HeavyHitter(term, count);
+        heavyHitters.put(term, hitter);
+        leastFrequent.add(hitter);
+    }
+
+    /**
+     * Least frequent heavy hitter, requeuing the ones counted since they were queued
+     */
+    private HeavyHitter leastFrequent() {
+        HeavyHitter hitter = leastFrequent.peek();
+        while (hitter.queued != hitter.count) {
+            leastFrequent.poll();
+            hitter.queued = hitter.count;
+            leastFrequent.add(hitter);
+            hitter = leastFrequent.peek();
+        }
+        return hitter;
+    }
+
+    private int index(int row, int hash) {
+        long h = (hash ^ (hash >>> 16)) * 0x9E3779B97F4A7C15L + (row + 1) * 0xC2B2AE3D27D4EB4FL;
+        h = (h ^ (h >>> 29)) * 0xBF58476D1CE4E5B9L;
+        return (int) ((h ^ (h >>> 32)) & (width - 1));
+    }
+
+    public synchronized long getDocumentCount() {
+        return documents;
+    }
+
+    /**
+     * Estimated number of documents with the term, never less than the actual number
+     */
+    public synchronized long getDocumentFrequency(String term) {
+        int hash = term.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row][index(row, hash)]);
+        }
+        HeavyHitter hitter = heavyHitters.get(term);
+        return hitter != null ? Math.min(estimate, hitter.count) : estimate;
+    }
+
+    /**
+     * IDF of the term in the corpus, smoothed so unseen terms get the highest one
+     */
+    public synchronized double getIdf(String term) {
+        return Math.log((documents + 1.0) / (getDocumentFrequency(term) + 1.0));
+    }
+
+    /**
+     * Most frequent terms with their estimated document frequencies, most frequent first
+     */
+    public synchronized Map<String, Long> getHeavyHitters() {
+        List<HeavyHitter> hitters = new ArrayList<>(heavyHitters.values());
+        hitters.sort(Comparator.comparingLong((HeavyHitter hitter) -> -hitter.count).thenComparing(hitter -> hitter.term));
+        Map<String, Long> frequencies = new LinkedHashMap<>();
+        for (HeavyHitter hitter : hitters) {
+            frequencies.put(hitter.term, getDocumentFrequency(hitter.term));
+        }
+        return frequencies;
+    }
+
+    /**
+     * IDF of each term, blended with its IDF in the corpus
+     *
+     * @param weight share of the corpus IDF, from 0 (only the given IDF) to 1 (only the corpus IDF)
+     */
+    public synchronized Map<String, Double> blend(Map<String, Double> idfs, double weight) {
+        if (weight < 0 || weight > 1) {
+            throw new IllegalArgumentException("Weight must be between 0 and 1: " + weight);
+        }
+        Map<String, Double> blended = new HashMap<>(idfs.size() * 2);
+        idfs.forEach((term, idf) -> blended.put(term, documents == 0 ? idf : (1 - weight) * idf + weight * getIdf(term)));
+        return blended;
+    }
+
+    /**
+     * Estimated heap of the sketch and of the heavy hitters, without their term strings
+     */
+    public synchronized long estimateBytes() {
+        return ACMFootprint.array(depth, ACMFootprint.REFERENCE) + (long) depth * ACMFootprint.array(width, ACMFootprint.INT)
+                + ACMFootprint.hashMap(heavyHitters.size()) + ACMFootprint.array(leastFrequent.size(), ACMFootprint.REFERENCE)
+                + heavyHitters.size() * ACMFootprint.object(ACMFootprint.REFERENCE + 2 * 8);
+    }
+
+    /**
+     * Writes the statistics, compressed, so they can be loaded by {@link #load(InputStream)}
+     */
+    public synchronized void save(OutputStream output) throws IOException {
+        GZIPOutputStream compressed = new GZIPOutputStream(output);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(compressed));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(depth);
+        out.writeInt(width);
+        out.writeInt(maxHeavyHitters);
+        out.writeLong(documents);
+        for (int[] row : counters) {
+            for (int counter : row) {
+                out.writeInt(counter);
+            }
+        }
+        out.writeInt(heavyHitters.size());
+        for (HeavyHitter hitter : heavyHitters.values()) {
+            out.writeUTF(hitter.term);
+            out.writeLong(hitter.count);
+        }
+        out.flush();
+        compressed.finish();
+    }
+
+    /**
+     * Reads statistics written by {@link #save(OutputStream)}
+     */
+    public static ACMTermStatistics load(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(input)));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a term statistics file");
+        }
+        ACMTermStatistics statistics = new ACMTermStatistics(in.readInt(), in.readInt(), in.readInt());
+        statistics.documents = in.readLong();
+        for (int[] row : statistics.counters) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = in.readInt();
+            }
+        }
+        int hitters = in.readInt();
+        for (int i = 0; i < hitters; i++) {
+            statistics.track(in.readUTF(), in.readLong());
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,166 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.StopFilter;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.analysis.es.SpanishAnalyzer;
+import org.apache.lucene.analysis.pt.PortugueseAnalyzer;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.util.CharArraySet;
+import org.apache.lucene.util.Version;
+import org.tartarus.snowball.SnowballProgram;
+import org.tartarus.snowball.ext.PorterStemmer;
+import org.tartarus.snowball.ext.PortugueseStemmer;
+import org.tartarus.snowball.ext.SpanishStemmer;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Stop word removal and stemming of the words of a language.
+ *
+ * Each thread reuses its own tokenizer, stop filter and stemmer, and stems are memoized
+ * in a bounded cache shared by all threads, as keywords repeat a lot.
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public class ACMTextAnalyzer {
+
+    public static final int DEFAULT_STEM_CACHE_SIZE = 100000;
+
+    public static final ACMTextAnalyzer ENGLISH = new ACMTextAnalyzer("en", EnglishAnalyzer.getDefaultStopSet(), PorterStemmer::new, DEFAULT_STEM_CACHE_SIZE);
+    public static final ACMTextAnalyzer PORTUGUESE = new ACMTextAnalyzer("pt", PortugueseAnalyzer.getDefaultStopSet(), PortugueseStemmer::new, DEFAULT_STEM_CACHE_SIZE);
+    public static final ACMTextAnalyzer SPANISH = new ACMTextAnalyzer("es", SpanishAnalyzer.getDefaultStopSet(), SpanishStemmer::new, DEFAULT_STEM_CACHE_SIZE);
+
+    private static final ConcurrentMap<String, ACMTextAnalyzer> analyzers = new ConcurrentHashMap<>();
+
+    static {
+        register(ENGLISH);
+        register(PORTUGUESE);
+        register(SPANISH);
+    }
+
+    /**
+     * Tokenizer, stop filter and stemmer of a thread
+     */
+    private final class Pipeline {
+        private final Tokenizer tokenizer;
+        private final TokenStream tokenStream;
+        private final CharTermAttribute charTermAttribute;
+        private final SnowballProgram stemmer;
+
+        private Pipeline() throws IOException {
+            tokenizer = new StandardTokenizer(Version.LUCENE_45, new StringReader(""));
+            tokenizer.close();
+            tokenStream = new StopFilter(Version.LUCENE_45, tokenizer, stopWords);
+            charTermAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+            stemmer = stemmerFactory.get();
+        }
+    }
+
+    private final String language;
+    private final CharArraySet stopWords;
+    private final Supplier<? extends SnowballProgram> stemmerFactory;
+    private final BoundedCache<String, String> stems;
+    private final ThreadLocal<Pipeline> pipelines = new ThreadLocal<>();
+
+    public ACMTextAnalyzer(String language, CharArraySet stopWords, Supplier<? extends SnowballProgram> stemmerFactory, int stemCacheSize) {
+        this.language = language;
+        this.stopWords = stopWords;
+        this.stemmerFactory = stemmerFactory;
+        this.stems = new BoundedCache<>(stemCacheSize);
+    }
+
+    /**
+     * Analyzer for the language, english when none was registered for it
+     */
+    public static ACMTextAnalyzer forLanguage(String language) {
+        ACMTextAnalyzer analyzer = language == null ? null : analyzers.get(language);
+        return analyzer == null ? ENGLISH : analyzer;
+    }
+
+    /**
+     * Makes the analyzer the one of its language
+     */
+    public static void register(ACMTextAnalyzer analyzer) {
+        analyzers.put(analyzer.getLanguage(), analyzer);
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    /**
+     * Cache of stems, with its hit and miss counters
+     */
+    public BoundedCache<String, String> getStemCache() {
+        return stems;
+    }
+
+    private Pipeline pipeline() {
+        Pipeline pipeline = pipelines.get();
+        if (pipeline == null) {
+            try {
+                pipeline = new Pipeline();
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not create the analysis pipeline", e);
+            }
+            pipelines.set(pipeline);
+        }
+        return pipeline;
+    }
+
+    /**
+     * Tokenizes the terms, removing the stop words
+     */
+    public List<String> removeStopWords(Collection<String> terms) {
+        Pipeline pipeline = pipeline();
+        List<String> words = new ArrayList<>();
+        try {
+            pipeline.tokenizer.setReader(new StringReader(StringUtils.join(terms, " ").trim()));
+            pipeline.tokenStream.reset();
+            while (pipeline.tokenStream.incrementToken()) {
+                words.add(pipeline.charTermAttribute.toString());
+            }
+            pipeline.tokenStream.end();
+            pipeline.tokenStream.close();
+        } catch (IOException e) {
+            // The pipeline is left in an unknown state
+            pipelines.remove();
+            e.printStackTrace();
+        }
+        return words;
+    }
+
+    public String stem(String term) {
+        return stems.get(term.toLowerCase(), word -> {
+            SnowballProgram stemmer = pipeline().stemmer;
+            stemmer.setCurrent(word);
+            stemmer.stem();
+            return stemmer.getCurrent();
+        });
+    }
+
+    public Set<String> stemTerms(Collection<String> terms) {
+        Set<String> stemmed = new HashSet<>();
+        for (String term : terms) {
+            stemmed.add(stem(term));
+        }
+        return stemmed;
+    }
+
+    /**
+     * Stop word removal followed by stemming, as done for the words being classified
+     */
+    public Set<String> analyze(Collection<String> words) {
+        return stemTerms(removeStopWords(words));
+    }
+}
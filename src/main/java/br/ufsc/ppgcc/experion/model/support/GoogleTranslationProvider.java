@@ -0,0 +1,76 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import com.google.cloud.translate.Translate;
+import com.google.cloud.translate.TranslateOptions;
+import com.google.cloud.translate.Translation;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Translation provider using the Google Cloud Translation service, with batched and concurrent requests
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public class GoogleTranslationProvider implements TranslationProvider {
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final int DEFAULT_CONCURRENCY = 4;
+
+    private final Translate translate;
+    private final int batchSize;
+    private final int concurrency;
+
+    /**
+     * Provider using the default credentials of the environment
+     */
+    public GoogleTranslationProvider() {
+        this(TranslateOptions.getDefaultInstance().getService(), DEFAULT_BATCH_SIZE, DEFAULT_CONCURRENCY);
+    }
+
+    public GoogleTranslationProvider(Translate translate, int batchSize, int concurrency) {
+        this.translate = translate;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+    }
+
+    @Override
+    public Map<String, String> translate(Collection<String> texts, String sourceLanguage, String targetLanguage) throws IOException {
+        List<String> pending = new ArrayList<>(new LinkedHashSet<>(texts));
+        Map<String, String> translated = new HashMap<>();
+        if (pending.isEmpty()) {
+            return translated;
+        }
+
+        int batchCount = (pending.size() + batchSize - 1) / batchSize;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, batchCount));
+        try {
+            List<List<String>> batches = new ArrayList<>();
+            List<Future<List<Translation>>> results = new ArrayList<>();
+            for (int start = 0; start < pending.size(); start += batchSize) {
+                List<String> batch = pending.subList(start, Math.min(start + batchSize, pending.size()));
+                batches.add(batch);
+                results.add(executor.submit(() -> translate.translate(batch,
+                        Translate.TranslateOption.sourceLanguage(sourceLanguage),
+                        Translate.TranslateOption.targetLanguage(targetLanguage))));
+            }
+
+            for (int i = 0; i < batches.size(); i++) {
+                List<Translation> translations = results.get(i).get();
+                for (int j = 0; j < translations.size(); j++) {
+                    translated.put(batches.get(i).get(j), translations.get(j).getTranslatedText());
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IOException("Could not translate the labels", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while translating the labels", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return translated;
+    }
+}
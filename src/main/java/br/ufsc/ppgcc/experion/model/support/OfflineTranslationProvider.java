@@ -0,0 +1,37 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import java.util.*;
+
+/**
+ * Translation provider backed by a fixed, local set of translations, without any remote call
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public class OfflineTranslationProvider implements TranslationProvider {
+
+    private final Map<String, String> translations;
+
+    /**
+     * Provider that translates nothing, so missing labels keep their original text
+     */
+    public OfflineTranslationProvider() {
+        this(Collections.emptyMap());
+    }
+
+    public OfflineTranslationProvider(Map<String, String> translations) {
+        this.translations = new HashMap<>(translations);
+    }
+
+    @Override
+    public Map<String, String> translate(Collection<String> texts, String sourceLanguage, String targetLanguage) {
+        Map<String, String> translated = new HashMap<>();
+        for (String text : texts) {
+            String translation = translations.get(text);
+            if (translation != null) {
+                translated.put(text, translation);
+            }
+        }
+        return translated;
+    }
+}
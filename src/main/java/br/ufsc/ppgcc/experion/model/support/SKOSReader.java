@@ -0,0 +1,95 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader of SKOS vocabularies in RDF/XML, such as the ACM Computing Classification System.
+ *
+ * The file is read in a single pass, without building a document: each skos:Concept is handed to the
+ * handler when its element ends, and each skos:broader link as soon as it is read.
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public class SKOSReader {
+
+    public static final String SKOS = "http://www.w3.org/2004/02/skos/core#";
+    public static final String RDF = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+
+    public interface Handler {
+
+        /**
+         * A concept, with the texts of its skos:prefLabel and skos:altLabel elements in document order
+         */
+        void concept(String id, List<String> prefLabels, List<String> altLabels);
+
+        /**
+         * A skos:broader link of the concept; the broader concept may not have been read yet
+         */
+        void broader(String id, String broaderId);
+    }
+
+    private final XMLInputFactory factory;
+
+    public SKOSReader() {
+        factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    public void read(InputStream input, Handler handler) throws XMLStreamException {
+        XMLStreamReader reader = factory.createXMLStreamReader(input);
+        try {
+            String id = null;
+            List<String> prefLabels = new ArrayList<>();
+            List<String> altLabels = new ArrayList<>();
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT && SKOS.equals(reader.getNamespaceURI())) {
+                    String name = reader.getLocalName();
+                    if (name.equals("Concept")) {
+                        id = conceptId(reader);
+                        prefLabels = new ArrayList<>();
+                        altLabels = new ArrayList<>();
+                    } else if (id != null && name.equals("prefLabel")) {
+                        prefLabels.add(reader.getElementText());
+                    } else if (id != null && name.equals("altLabel")) {
+                        altLabels.add(reader.getElementText());
+                    } else if (id != null && name.equals("broader")) {
+                        handler.broader(id, reader.getAttributeValue(RDF, "resource"));
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && id != null
+                        && SKOS.equals(reader.getNamespaceURI()) && reader.getLocalName().equals("Concept")) {
+                    handler.concept(id, prefLabels, altLabels);
+                    id = null;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * @throws XMLStreamException if the concept has neither rdf:about nor rdf:ID, as it could not be told apart
+     *                            from other anonymous concepts nor be linked to
+     */
+    private static String conceptId(XMLStreamReader reader) throws XMLStreamException {
+        String about = reader.getAttributeValue(RDF, "about");
+        if (about != null) {
+            return about;
+        }
+        String id = reader.getAttributeValue(RDF, "ID");
+        if (id == null) {
+            throw new XMLStreamException("skos:Concept without rdf:about or rdf:ID at line "
+                    + reader.getLocation().getLineNumber(), reader.getLocation());
+        }
+        return "#" + id;
+    }
+}
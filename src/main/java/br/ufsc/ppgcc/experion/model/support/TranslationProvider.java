@@ -0,0 +1,22 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Translates the labels of the classification to other languages
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ * @see TranslationStore
+ */
+public interface TranslationProvider {
+
+    /**
+     * Translates the texts in batch
+     *
+     * @return the translation of each text; texts the provider could not translate are left out
+     */
+    Map<String, String> translate(Collection<String> texts, String sourceLanguage, String targetLanguage) throws IOException;
+}
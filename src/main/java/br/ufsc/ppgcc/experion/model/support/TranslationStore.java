@@ -0,0 +1,149 @@
+package br.ufsc.ppgcc.experion.model.support;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Persistent, append-only store of label translations.
+ *
+ * Translations are read from a base map (e.g. the bundled cache) and from an optional file,
+ * where new translations are appended as tab separated lines. Later lines take precedence,
+ * and a partially written last line is ignored, then dropped before new translations are appended.
+ *
+ * @author Rodrigo Gonçalves
+ * @version 2026-10-17 - First Version
+ */
+public class TranslationStore {
+
+    private final Map<String, String> translations;
+    private final File file;
+    // Length of the complete lines, when the file ended with an incomplete one
+    private long complete = -1;
+
+    /**
+     * @param base translations known up front
+     * @param file file to read and append translations to; null keeps new translations only in memory
+     */
+    public TranslationStore(Map<String, String> base, File file) throws IOException {
+        this.translations = new HashMap<>(base);
+        this.file = file;
+        if (file != null && file.exists()) {
+            read();
+        }
+    }
+
+    /**
+     * Store with the bundled english to portuguese translations, appending new ones to the file
+     */
+    @SuppressWarnings("unchecked")
+    public static TranslationStore bundledPTBR(File file) throws IOException {
+        Map<String, String> cache = new HashMap<>();
+        try (ObjectInputStream os = new ObjectInputStream(TranslationStore.class.getResourceAsStream("/cache_en_ptbr.dat"))) {
+            cache = (Map<String, String>) os.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            // Ignore - invalid cache
+        }
+        return new TranslationStore(cache, file);
+    }
+
+    /**
+     * Default store file for english to portuguese translations, from the experion.acm.translations property
+     * or in the .experion directory of the user
+     */
+    public static File defaultFilePTBR() {
+        String path = System.getProperty("experion.acm.translations");
+        if (path != null) {
+            return new File(path);
+        }
+        return new File(new File(System.getProperty("user.home"), ".experion"), "translations_en_ptbr.tsv");
+    }
+
+    /**
+     * Reads the complete lines of the file; text after the last line break was left by an interrupted write
+     */
+    private void read() throws IOException {
+        byte[] content = Files.readAllBytes(file.toPath());
+        int end = content.length;
+        while (end > 0 && content[end - 1] != '\n') {
+            end--;
+        }
+        complete = end < content.length ? end : -1;
+        for (String line : new String(content, 0, end, StandardCharsets.UTF_8).split("\n")) {
+            int separator = line.indexOf('\t');
+            if (separator > 0 && line.indexOf('\t', separator + 1) < 0) {
+                translations.put(unescape(line.substring(0, separator)), unescape(line.substring(separator + 1)));
+            }
+        }
+    }
+
+    public synchronized String get(String text) {
+        return translations.get(text);
+    }
+
+    /**
+     * Texts without a translation in the store
+     */
+    public synchronized Set<String> missing(Collection<String> texts) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (!translations.containsKey(text)) {
+                missing.add(text);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Adds the translations, appending them to the file
+     */
+    public synchronized void putAll(Map<String, String> newTranslations) throws IOException {
+        if (newTranslations.isEmpty()) {
+            return;
+        }
+        translations.putAll(newTranslations);
+        if (file == null) {
+            return;
+        }
+
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        if (complete >= 0) {
+            // Drops the incomplete line, so it is not completed by the new ones
+            try (RandomAccessFile log = new RandomAccessFile(file, "rw")) {
+                log.setLength(complete);
+            }
+        }
+        complete = -1;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8))) {
+            for (Map.Entry<String, String> translation : newTranslations.entrySet()) {
+                writer.write(escape(translation.getKey()) + "\t" + escape(translation.getValue()) + "\n");
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return translations.size();
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String text) {
+        StringBuilder unescaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                unescaped.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                unescaped.append(c);
+            }
+        }
+        return unescaped.toString();
+    }
+}
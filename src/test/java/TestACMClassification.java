@@ -1,14 +1,42 @@
 import br.ufsc.ppgcc.experion.model.support.ACMClassification;
+import br.ufsc.ppgcc.experion.model.support.ACMClassificationRegistry;
+import br.ufsc.ppgcc.experion.model.support.ACMFootprint;
+import br.ufsc.ppgcc.experion.model.support.ACMTaxonomy;
+import br.ufsc.ppgcc.experion.model.support.ACMTermDictionary;
+import br.ufsc.ppgcc.experion.model.support.ACMTermScorer;
+import br.ufsc.ppgcc.experion.model.support.ACMTermStatistics;
+import br.ufsc.ppgcc.experion.model.support.ACMTextAnalyzer;
+import br.ufsc.ppgcc.experion.model.support.BoundedCache;
+import br.ufsc.ppgcc.experion.model.support.OfflineTranslationProvider;
+import br.ufsc.ppgcc.experion.model.support.TranslationStore;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
 import org.jdom2.JDOMException;
 import org.junit.Test;
+import org.tartarus.snowball.ext.PorterStemmer;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
 public class TestACMClassification {
 
     @Test
@@ -27,6 +55,321 @@ public class TestACMClassification {
         System.out.println(acm.getTrueLabel(words));
     }
 
+    @Test
+    public void testSnapshot() throws JDOMException, IOException {
+        ACMClassification acm = new ACMClassification();
+        acm.loadXML();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        acm.saveSnapshot(output);
+
+        ACMClassification loaded = new ACMClassification();
+        assertTrue(loaded.loadSnapshot(new ByteArrayInputStream(output.toByteArray()), "en"));
+        assertFalse(new ACMClassification().loadSnapshot(new ByteArrayInputStream(output.toByteArray()), "pt"));
+
+        Set<String> words = new HashSet<>(Arrays.asList("system", "database", "query", "optimization"));
+        assertEquals(acm.getTrueLabel(words), loaded.getTrueLabel(words));
+        assertEquals(acm.getTreeView().length(), loaded.getTreeView().length());
+    }
+
+    @Test
+    public void testScorer() throws JDOMException, IOException {
+        ACMClassification acm = new ACMClassification();
+        acm.loadXML();
+        ACMTermScorer scorer = acm.getScorer();
+
+        int[] query = scorer.encode(Arrays.asList("databas", "system", "unknownterm", "databas"));
+        assertEquals(2, query.length);
+        assertTrue(query[0] < query[1]);
+
+        ACMTermScorer.Candidates candidates = scorer.score(query);
+        assertTrue(candidates.size() > 0);
+        for (int i = 0; i < candidates.size(); i++) {
+            assertEquals(scorer.score(query, candidates.node(i)), candidates.score(i), 0.0);
+        }
+    }
+
+    @Test
+    public void testBatchScorer() throws JDOMException, IOException {
+        ACMClassification acm = new ACMClassification();
+        acm.loadXML();
+        List<List<String>> wordSets = Arrays.asList(
+                Arrays.asList("database", "query", "optimization"),
+                Arrays.asList("the"),
+                Arrays.asList("computer", "graphics", "rendering"),
+                Arrays.asList("database", "query", "optimization"),
+                Collections.emptyList(),
+                Arrays.asList("networks", "security", "privacy", "protocols"));
+
+        List<List<ACMClassification.ScoredNode>> batch = acm.getBatchTopLabels(wordSets, 10, 0);
+        List<List<ACMClassification.ACMClassificationNode>> trueLabels = acm.getBatchTrueLabels(wordSets);
+        assertEquals(wordSets.size(), batch.size());
+        for (int i = 0; i < wordSets.size(); i++) {
+            List<ACMClassification.ScoredNode> single = acm.getTopLabels(wordSets.get(i), 10, 0);
+            assertEquals(single.size(), batch.get(i).size());
+            for (int j = 0; j < single.size(); j++) {
+                assertEquals(single.get(j).getNode(), batch.get(i).get(j).getNode());
+                assertEquals(single.get(j).getScore(), batch.get(i).get(j).getScore(), 0.0);
+            }
+            assertEquals(acm.getTrueLabel(wordSets.get(i)), trueLabels.get(i));
+        }
+    }
+
+    @Test
+    public void testGetTopLabels() throws JDOMException, IOException {
+        ACMClassification acm = new ACMClassification();
+        acm.loadXML();
+        List<ACMClassification.ScoredNode> top = acm.getTopLabels(Arrays.asList("database", "query", "optimization"), 10, 0);
+        assertEquals(10, top.size());
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(top.get(i - 1).getScore() >= top.get(i).getScore());
+        }
+        assertEquals(top.get(0).getNode(), acm.getTrueLabel(Arrays.asList("database", "query", "optimization")).get(0));
+
+        double minScore = top.get(4).getScore();
+        assertTrue(acm.getTopLabels(Arrays.asList("database", "query", "optimization"), 10, minScore).stream()
+                .allMatch(node -> node.getScore() >= minScore));
+    }
+
+    @Test
+    public void testTermStatistics() throws Exception {
+        ACMTermStatistics statistics = new ACMTermStatistics(4, 1024, 16);
+        for (int i = 0; i < 1000; i++) {
+            statistics.addDocument(i % 10 == 0 ? Arrays.asList("system", "databas", "term" + i % 100)
+                    : Arrays.asList("system", "term" + i % 100, "system"));
+        }
+        assertEquals(1000, statistics.getDocumentCount());
+        assertTrue(statistics.getDocumentFrequency("system") >= 1000);
+        assertTrue(statistics.getDocumentFrequency("databas") >= 100);
+        assertEquals("system", statistics.getHeavyHitters().keySet().iterator().next());
+        assertTrue(statistics.getIdf("system") < statistics.getIdf("databas"));
+        assertTrue(statistics.getIdf("databas") < statistics.getIdf("unseen"));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        statistics.save(output);
+        ACMTermStatistics loaded = ACMTermStatistics.load(new ByteArrayInputStream(output.toByteArray()));
+        assertEquals(statistics.getDocumentFrequency("databas"), loaded.getDocumentFrequency("databas"));
+        assertEquals(statistics.getHeavyHitters(), loaded.getHeavyHitters());
+
+        // Only the corpus IDF with a weight of 1
+        ACMClassification classification = new ACMClassification();
+        classification.setCorpusStatistics(statistics, 1);
+        classification.loadXML();
+        ACMTermScorer scorer = classification.getScorer();
+        assertEquals(statistics.getIdf("system"), scorer.getIdf(scorer.getTermId("system")), 1e-9);
+    }
+
+    @Test
+    public void testFuzzyMatching() throws Exception {
+        ACMClassification classification = new ACMClassification();
+        classification.setFuzzyMatching(2, 64);
+        classification.loadXML();
+        ACMClassification exact = ACMClassificationRegistry.get("en");
+
+        // Known words are scored as before
+        List<String> words = Arrays.asList("information", "retrieval");
+        assertEquals(exact.getTopLabels(words, 3, 0).toString(), classification.getTopLabels(words, 3, 0).toString());
+        assertTrue(exact.getFingerprint() != classification.getFingerprint());
+
+        // Misspelled and concatenated words
+        ACMTermScorer scorer = classification.getScorer();
+        assertTrue(exact.getTopLabels(Collections.singletonList("databse"), 1, 0).isEmpty());
+        assertEquals(Collections.singletonList(scorer.getTermId("databas")),
+                Arrays.stream(classification.getFuzzyIndex().resolve("databse")).boxed().collect(Collectors.toList()));
+        assertEquals(new HashSet<>(Arrays.asList(scorer.getTermId("data"), scorer.getTermId("mine"))),
+                Arrays.stream(classification.getFuzzyIndex().resolve("datamining")).boxed().collect(Collectors.toSet()));
+        assertEquals(exact.getTopLabels(Arrays.asList("neural", "networks"), 1, 0).get(0).getNode(),
+                classification.getTopLabels(Arrays.asList("neural", "netwrks"), 1, 0).get(0).getNode());
+        assertTrue(classification.getTopLabels(Collections.singletonList("xyzzy"), 1, 0).isEmpty());
+    }
+
+    @Test
+    public void testFootprint() throws Exception {
+        ACMClassification english = ACMClassificationRegistry.get("en");
+        ACMClassification portuguese = ACMClassificationRegistry.get("pt");
+        ACMFootprint footprint = english.getFootprint();
+        assertTrue(footprint.getBytes("structure") > 0);
+        assertTrue(footprint.getBytes("scorer") > 0);
+
+        // The structure is shared by both languages
+        ACMFootprint shared = ACMClassificationRegistry.getDefault().getFootprint();
+        assertEquals(footprint.getBytes("structure"), shared.getBytes("structure"));
+        assertEquals(portuguese.getFootprint().getBytes("labels"), shared.getBytes("pt.labels"));
+
+        // Queries do not grow the dictionary
+        ACMTermDictionary dictionary = ACMTermDictionary.current();
+        int terms = dictionary.size();
+        english.getTopLabels(Arrays.asList("zyxwv", "qwertyuiop", "database"), 3, 0);
+        portuguese.getTopLabels(Arrays.asList("zyxwv", "banco"), 3, 0);
+        assertEquals(terms, dictionary.size());
+
+        // A node below the root, whose full labels include those of its ancestors
+        ACMClassification.ACMClassificationNode node = english.getNodes().stream().filter(n -> n.getLevel() >= 3).findFirst().get();
+        assertTrue(node.getFullLabels().size() > node.getLabels().size());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(output)) {
+            out.writeObject(node);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            ACMClassification.ACMClassificationNode copy = (ACMClassification.ACMClassificationNode) in.readObject();
+            assertEquals(node.getFullTrueLabel(), copy.getFullTrueLabel());
+            assertEquals(node.getLabels(), copy.getLabels());
+            assertEquals(node.getFullLabels(), copy.getFullLabels());
+            assertEquals(node.getFullWords(), copy.getFullWords());
+        }
+    }
+
+    @Test
+    public void testTaxonomy() throws JDOMException, IOException {
+        ACMClassification acm = new ACMClassification();
+        acm.loadXML();
+        ACMTaxonomy taxonomy = acm.getTaxonomy();
+        assertEquals(acm.getNodes().size(), taxonomy.size());
+
+        for (ACMClassification.ACMClassificationNode node : acm.getNodes()) {
+            int concept = taxonomy.getConcept(node.getId());
+            int parent = taxonomy.getParent(concept);
+            assertEquals(node.getLevel(), taxonomy.getDepth(concept));
+            assertEquals(node.getFullTrueLabel(), taxonomy.getFullTrueLabel(concept));
+            if (parent == ACMTaxonomy.NO_PARENT) {
+                assertEquals(1, taxonomy.getDepth(concept));
+            } else {
+                assertTrue(taxonomy.isAncestor(parent, concept));
+                assertFalse(taxonomy.isAncestor(concept, parent));
+                assertTrue(taxonomy.getFullLabels(concept).containsAll(taxonomy.getFullLabels(parent)));
+            }
+        }
+
+        int[] position = new int[taxonomy.size()];
+        int[] order = taxonomy.getTopologicalOrder();
+        for (int i = 0; i < order.length; i++) {
+            position[order[i]] = i;
+        }
+        for (int concept = 0; concept < taxonomy.size(); concept++) {
+            for (int parent : taxonomy.getParents(concept)) {
+                assertTrue(position[parent] < position[concept]);
+            }
+        }
+
+        ACMTaxonomy.Builder builder = new ACMTaxonomy.Builder();
+        builder.addConcept("a", "a", Arrays.asList("a"));
+        builder.addConcept("b", "b", Arrays.asList("b"));
+        builder.addConcept("c", "c", Arrays.asList("c"));
+        builder.addBroader("c", "b");
+        builder.addBroader("b", "a");
+        builder.addBroader("c", "a");
+        ACMTaxonomy small = builder.build();
+        assertEquals("a -> b -> c", small.getFullTrueLabel(2));
+        assertEquals(2, small.getParents(2).length);
+        assertEquals(3, small.getSubtreeSize(0));
+        assertTrue(small.isAncestor(0, 2));
+    }
+
+    @Test
+    public void testLoadSKOS() throws JDOMException, IOException {
+        String skos = "<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\" xmlns:skos=\"http://www.w3.org/2004/02/skos/core#\">"
+                + "<skos:Concept rdf:about=\"#data\"><skos:prefLabel>Data management</skos:prefLabel></skos:Concept>"
+                + "<skos:Concept rdf:about=\"#db\"><skos:prefLabel>Database systems</skos:prefLabel>"
+                + "<skos:altLabel>DBMS</skos:altLabel><skos:broader rdf:resource=\"#data\"/></skos:Concept>"
+                + "</rdf:RDF>";
+        ACMClassification acm = new ACMClassification();
+        acm.loadSKOS(new ByteArrayInputStream(skos.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, acm.getNodes().size());
+        assertEquals("data management -> database systems", acm.getNodes().get(1).getFullTrueLabel());
+        assertTrue(acm.getNodes().get(1).getFullLabels().contains("dbms"));
+        assertEquals("#db", acm.getTopLabels(Arrays.asList("dbms"), 1, 0).get(0).getNode().getId());
+
+        String anonymous = skos.replace("<skos:Concept rdf:about=\"#db\">", "\n<skos:Concept>");
+        try {
+            new ACMClassification().loadSKOS(new ByteArrayInputStream(anonymous.getBytes(StandardCharsets.UTF_8)));
+            fail("Anonymous concept not reported");
+        } catch (JDOMException e) {
+            assertTrue(e.getCause().getMessage().contains("skos:Concept without rdf:about or rdf:ID at line 2"));
+        }
+    }
+
+    @Test
+    public void testAnalyzer() {
+        ACMTextAnalyzer analyzer = new ACMTextAnalyzer("en", EnglishAnalyzer.getDefaultStopSet(), PorterStemmer::new, 100);
+        assertEquals(Arrays.asList("database", "systems"), analyzer.removeStopWords(Arrays.asList("the", "database", "of", "systems")));
+        assertEquals(new HashSet<>(Arrays.asList("databas", "system")), analyzer.analyze(Arrays.asList("the", "Databases", "of", "systems")));
+
+        analyzer.stem("databases");
+        assertEquals(1, analyzer.getStemCache().getHitCount());
+        assertEquals(2, analyzer.getStemCache().getMissCount());
+
+        BoundedCache<String, String> cache = new BoundedCache<>(1);
+        cache.put("databases", "databas");
+        cache.put("systems", "system");
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testTranslationStore() throws IOException {
+        File file = File.createTempFile("translations", ".tsv");
+        file.delete();
+        try {
+            TranslationStore store = new TranslationStore(Collections.singletonMap("database", "banco de dados"), file);
+            assertEquals(Collections.singleton("query\tlanguage"), store.missing(Arrays.asList("database", "query\tlanguage")));
+
+            store.putAll(new OfflineTranslationProvider(Collections.singletonMap("query\tlanguage", "linguagem\nde consulta"))
+                    .translate(store.missing(Arrays.asList("database", "query\tlanguage")), "en", "pt-br"));
+            TranslationStore reloaded = new TranslationStore(Collections.emptyMap(), file);
+            assertEquals("linguagem\nde consulta", reloaded.get("query\tlanguage"));
+            assertEquals(null, reloaded.get("database"));
+
+            // A line left incomplete is ignored, and the next translations start on a line of their own
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)) {
+                writer.write("computer\tcompu");
+            }
+            reloaded = new TranslationStore(Collections.emptyMap(), file);
+            assertEquals(null, reloaded.get("computer"));
+            reloaded.putAll(Collections.singletonMap("network", "rede"));
+            reloaded = new TranslationStore(Collections.emptyMap(), file);
+            assertEquals(null, reloaded.get("computer"));
+            assertEquals("rede", reloaded.get("network"));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testCustomTranslations() throws Exception {
+        TranslationStore store = TranslationStore.bundledPTBR(null);
+        store.putAll(Collections.singletonMap("Surveys and overviews", "Levantamentos personalizados"));
+        ACMClassification custom = new ACMClassification();
+        custom.setTranslationStore(store);
+        custom.setTranslationProvider(new OfflineTranslationProvider());
+        custom.loadXMLInPTBR();
+
+        ACMClassification bundled = ACMClassificationRegistry.get("pt");
+        ACMTaxonomy taxonomy = custom.getTaxonomy();
+        int concept = taxonomy.getConcept("#10002945");
+        assertEquals("levantamentos personalizados", custom.getNodes().get(concept).getTrueLabel());
+        assertFalse(bundled.getNodes().get(concept).getTrueLabel().equals("levantamentos personalizados"));
+
+        // Translations stored by the user are used instead of the bundled snapshot
+        File file = File.createTempFile("translations", ".tsv");
+        String property = System.getProperty("experion.acm.translations");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write("Surveys and overviews\tLevantamentos do usuário\n");
+        }
+        System.setProperty("experion.acm.translations", file.getPath());
+        try {
+            ACMClassification stored = new ACMClassification();
+            stored.loadXMLInPTBR();
+            assertEquals("levantamentos do usuário", stored.getNodes().get(concept).getTrueLabel());
+        } finally {
+            if (property == null) {
+                System.clearProperty("experion.acm.translations");
+            } else {
+                System.setProperty("experion.acm.translations", property);
+            }
+            file.delete();
+        }
+    }
+
     @Test
     public void testTunningClassification() throws JDOMException, IOException, ClassNotFoundException {
         ACMClassification acmPT = new ACMClassification();
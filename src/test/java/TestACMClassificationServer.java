@@ -0,0 +1,152 @@
+import br.ufsc.ppgcc.experion.model.support.ACMClassification;
+import br.ufsc.ppgcc.experion.model.support.ACMClassificationRegistry;
+import br.ufsc.ppgcc.experion.model.support.ACMClassificationServer;
+import br.ufsc.ppgcc.experion.model.support.ACMMetricsRegistry;
+import br.ufsc.ppgcc.experion.model.support.ACMRequestBatcher;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+public class TestACMClassificationServer {
+
+    @Test
+    public void testBatcher() throws Exception {
+        ACMClassification classifier = ACMClassificationRegistry.get("en");
+        ACMMetricsRegistry metrics = new ACMMetricsRegistry();
+        List<List<String>> wordSets = Arrays.asList(
+                Arrays.asList("database", "query", "optimization"),
+                Arrays.asList("computer", "graphics"),
+                Arrays.asList("the"));
+
+        try (ACMRequestBatcher batcher = new ACMRequestBatcher(classifier, 100, 64, 5000000, metrics)) {
+            List<CompletableFuture<List<List<ACMClassification.ScoredNode>>>> results = new ArrayList<>();
+            for (int k = 1; k <= 5; k++) {
+                results.add(batcher.submit(wordSets, k));
+            }
+            for (int k = 1; k <= 5; k++) {
+                List<List<ACMClassification.ScoredNode>> result = results.get(k - 1).get();
+                for (int i = 0; i < wordSets.size(); i++) {
+                    List<ACMClassification.ScoredNode> expected = classifier.getTopLabels(wordSets.get(i), k, 0);
+                    assertEquals(expected.size(), result.get(i).size());
+                    for (int j = 0; j < expected.size(); j++) {
+                        assertEquals(expected.get(j).getNode(), result.get(i).get(j).getNode());
+                    }
+                }
+            }
+        }
+        assertEquals(5, metrics.histogram("batcher.en.latencyNanos").getCount());
+    }
+
+    @Test
+    public void testServer() throws Exception {
+        ACMClassificationServer server = new ACMClassificationServer(ACMClassificationRegistry.getDefault(),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.warm("en");
+        server.start();
+        try {
+            ACMClassification classifier = ACMClassificationRegistry.get("en");
+            List<ACMClassification.ACMClassificationNode> expected = classifier.getTrueLabel(Arrays.asList("database", "query", "optimization"));
+            String response = post(server, "/trueLabel?language=en", "database, query, optimization\nthe");
+            assertTrue(response.startsWith("[[{\"id\":\"" + expected.get(0).getId() + "\""));
+            assertTrue(response.endsWith(",[]]"));
+
+            response = post(server, "/logicalEvidences", "en\tdatabase,query,optimization\npt\tbanco de dados,consulta");
+            assertTrue(response.contains("\"evidences\":[0]"));
+
+            assertEquals(400, status(server, "/trueLabel?language=xx", "database"));
+            assertTrue(get(server, "/stats").contains("\"en\":{\"queueDepth\":0"));
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testServerBackpressure() throws Exception {
+        ACMClassificationServer server = new ACMClassificationServer(ACMClassificationRegistry.getDefault(),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.setQueueCapacity(4);
+        server.setMaxRequestLines(4);
+        // The first batch waits for more requests, holding its evidences in the queue meanwhile
+        server.setMaxDelayMillis(2000);
+        server.warm("en");
+        server.start();
+        try {
+            assertEquals(413, status(server, "/trueLabel?language=en", "database\nquery\ngraphics\nrendering\nnetworks"));
+
+            CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return post(server, "/trueLabel?language=en", "database\nquery\ngraphics");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            long deadline = System.currentTimeMillis() + 1000;
+            while (!get(server, "/stats").contains("\"en\":{\"queueDepth\":3") && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // Two more evidences do not fit
+            HttpURLConnection rejected = send(server, "/trueLabel?language=en", "computer\nnetworks");
+            assertEquals(503, rejected.getResponseCode());
+            assertEquals("1", rejected.getHeaderField("Retry-After"));
+            assertEquals(1, server.getMetrics().counter("batcher.en.rejected").getCount());
+
+            assertTrue(first.get().startsWith("[["));
+            assertEquals(200, status(server, "/trueLabel?language=en", "computer\nnetworks"));
+        } finally {
+            server.close();
+        }
+    }
+
+    private static HttpURLConnection connect(ACMClassificationServer server, String path) throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:" + server.getAddress().getPort() + path).openConnection();
+    }
+
+    private static HttpURLConnection send(ACMClassificationServer server, String path, String body) throws IOException {
+        HttpURLConnection connection = connect(server, path);
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream output = connection.getOutputStream()) {
+            output.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return connection;
+    }
+
+    private static int status(ACMClassificationServer server, String path, String body) throws IOException {
+        return send(server, path, body).getResponseCode();
+    }
+
+    private static String post(ACMClassificationServer server, String path, String body) throws IOException {
+        return read(send(server, path, body));
+    }
+
+    private static String get(ACMClassificationServer server, String path) throws IOException {
+        return read(connect(server, path));
+    }
+
+    private static String read(HttpURLConnection connection) throws IOException {
+        assertEquals(200, connection.getResponseCode());
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream input = connection.getInputStream()) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                body.write(buffer, 0, read);
+            }
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -1,10 +1,523 @@
+import br.ufsc.ppgcc.experion.extractor.evidence.PhysicalEvidence;
+import br.ufsc.ppgcc.experion.model.evidence.LogicalEvidence;
+import br.ufsc.ppgcc.experion.model.evidence.builder.engine.ACMClassificationCache;
+import br.ufsc.ppgcc.experion.model.evidence.builder.engine.ACMConceptEvidence;
+import br.ufsc.ppgcc.experion.model.evidence.builder.engine.ACMEvidenceRollup;
+import br.ufsc.ppgcc.experion.model.evidence.builder.engine.ACMLogicalEvidenceAggregator;
 import br.ufsc.ppgcc.experion.model.evidence.builder.engine.ACMLogicalEvidenceBuilder;
+import br.ufsc.ppgcc.experion.model.evidence.builder.engine.ACMResultStore;
+import br.ufsc.ppgcc.experion.model.support.ACMClassification;
+import br.ufsc.ppgcc.experion.model.support.ACMClassificationRegistry;
+import br.ufsc.ppgcc.experion.model.support.ACMMetricsRegistry;
+import br.ufsc.ppgcc.experion.model.support.ACMMultilingualClassification;
+import br.ufsc.ppgcc.experion.model.support.ACMTaxonomy;
+import br.ufsc.ppgcc.experion.model.support.ACMTermDictionary;
+import br.ufsc.ppgcc.experion.model.support.ACMTermStatistics;
+import br.ufsc.ppgcc.experion.model.support.ACMTextAnalyzer;
+import br.ufsc.ppgcc.experion.model.support.OfflineTranslationProvider;
+import br.ufsc.ppgcc.experion.model.support.TranslationStore;
+import org.jdom2.JDOMException;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
 public class TestACMLogicalEvidenceBuilder {
 
     @Test
     public void testCreate() {
         ACMLogicalEvidenceBuilder builder = new ACMLogicalEvidenceBuilder();
     }
+
+    @Test
+    public void testSharedClassification() throws IOException {
+        new ACMLogicalEvidenceBuilder();
+        assertSame(ACMClassificationRegistry.get("en"), ACMClassificationRegistry.get("en"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSharedClassificationIsReadOnly() throws IOException {
+        ACMClassificationRegistry.get("en").setDebug(true);
+    }
+
+    @Test
+    public void testResultCache() throws JDOMException, IOException {
+        ACMClassification classifier = ACMClassificationRegistry.get("en");
+        ACMClassificationCache cache = new ACMClassificationCache(100);
+
+        assertEquals(classifier.getTrueLabel(Arrays.asList("Databases", "the", "systems")),
+                cache.getTrueLabel(classifier, Arrays.asList("Databases", "the", "systems")));
+        cache.getTrueLabel(classifier, Arrays.asList("system", "database"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        // Another classification of the same language does not share the entries
+        ACMClassification fuzzy = new ACMClassification();
+        fuzzy.setFuzzyMatching(2, 64);
+        fuzzy.loadXML();
+        cache.getTrueLabel(fuzzy, Arrays.asList("system", "database"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testResultStore() throws IOException {
+        ACMClassification english = ACMClassificationRegistry.get("en");
+        List<String> database = Arrays.asList("database", "query", "optimization");
+        List<String> graphics = Arrays.asList("computer", "graphics");
+        File file = File.createTempFile("acm", ".results");
+        file.deleteOnExit();
+
+        try (ACMResultStore store = new ACMResultStore(file)) {
+            assertNull(store.get(english, database));
+            store.put(english, database, english.getTrueLabel(database));
+            store.put(english, graphics, english.getTrueLabel(graphics));
+        }
+        // A record left incomplete is discarded
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(new byte[]{1, 2, 3});
+        }
+
+        try (ACMResultStore store = new ACMResultStore(file)) {
+            assertEquals(2, store.size());
+            assertEquals(english.getTrueLabel(database), store.get(english, Arrays.asList("Optimization", "queries", "database")));
+            assertNull(store.get(ACMClassificationRegistry.get("pt"), database));
+            store.compact();
+        }
+        try (ACMResultStore store = new ACMResultStore(file)) {
+            assertEquals(1, store.size());
+            assertNull(store.get(english, graphics));
+        }
+    }
+
+    @Test
+    public void testBuildForWithResultStore() throws Exception {
+        ACMClassification classifier = new ACMClassification();
+        classifier.loadXML();
+        ACMMetricsRegistry metrics = new ACMMetricsRegistry();
+        classifier.setMetrics(metrics);
+        ACMMultilingualClassification classifications = new ACMMultilingualClassification();
+        classifications.put("en", classifier);
+        ACMTermStatistics statistics = new ACMTermStatistics();
+        classifications.setCorpusStatistics("en", statistics, 0.5);
+        Set<PhysicalEvidence> evidences = new LinkedHashSet<>(Arrays.asList(evidence("en", "database", "query", "optimization"),
+                evidence("en", "computer", "graphics", "rendering"), evidence("en", "network", "security", "protocols")));
+        File file = File.createTempFile("acm", ".results");
+        file.deleteOnExit();
+
+        Map<ACMClassification.ACMClassificationNode, List<PhysicalEvidence>> first;
+        try (ACMResultStore store = new ACMResultStore(file)) {
+            ACMLogicalEvidenceBuilder builder = new ACMLogicalEvidenceBuilder(classifications);
+            builder.setResultStore(store);
+            first = builder.buildFor(evidences);
+        }
+        assertEquals(3, metrics.counter("classification.requests").getCount());
+
+        // The next run only reads the stored results, but still counts every evidence in the statistics
+        try (ACMResultStore store = new ACMResultStore(file)) {
+            ACMLogicalEvidenceBuilder builder = new ACMLogicalEvidenceBuilder(classifications);
+            builder.setResultStore(store);
+            assertEquals(first, builder.buildFor(evidences));
+            assertEquals(3, store.getHitCount());
+            assertEquals(0, store.getMissCount());
+        }
+        assertEquals(3, metrics.counter("classification.requests").getCount());
+        assertEquals(6, statistics.getDocumentCount());
+    }
+
+    @Test
+    public void testMetrics() throws JDOMException, IOException {
+        ACMClassification classifier = new ACMClassification();
+        classifier.loadXML();
+        ACMMetricsRegistry metrics = new ACMMetricsRegistry();
+        classifier.setMetrics(metrics);
+        ACMLogicalEvidenceBuilder builder = new ACMLogicalEvidenceBuilder(classifier, classifier);
+        builder.setMetrics(metrics);
+
+        classifier.getTrueLabel(Arrays.asList("database", "systems"));
+        classifier.getTrueLabel(Arrays.asList("the"));
+        builder.buildFor(Collections.emptySet());
+
+        assertEquals(2, metrics.counter("classification.requests").getCount());
+        assertEquals(1, metrics.counter("classification.emptyResults").getCount());
+        assertEquals(2, metrics.histogram("classification.totalNanos").getCount());
+        assertEquals(1, metrics.histogram("builder.batchNanos").getCount());
+        String rendered = metrics.toString();
+        assertTrue(rendered.contains("classification.requests: 2\n"));
+        assertTrue(rendered.contains("classification.emptyResults: 1\n"));
+    }
+
+    @Test
+    public void testParallelBuildFor() {
+        Set<PhysicalEvidence> evidences = mixedEvidences(50);
+
+        ACMLogicalEvidenceBuilder builder = new ACMLogicalEvidenceBuilder();
+        Map<ACMClassification.ACMClassificationNode, List<PhysicalEvidence>> sequential = builder.buildFor(evidences);
+        assertTrue(sequential.values().stream().flatMap(List::stream).anyMatch(evidence -> evidence.getLanguage().equals("pt")));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Map<ACMClassification.ACMClassificationNode, List<PhysicalEvidence>> parallel = builder.buildFor(evidences, pool);
+            assertEquals(sequential.keySet(), parallel.keySet());
+            for (ACMClassification.ACMClassificationNode concept : sequential.keySet()) {
+                assertEquals(concept.getId(), new HashSet<>(sequential.get(concept)), new HashSet<>(parallel.get(concept)));
+            }
+            assertEquals(evidencesPerConcept(builder.getLogicalEvidences(evidences)),
+                    evidencesPerConcept(builder.getLogicalEvidences(evidences, pool)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Logical evidences as the number of concepts with each set of physical evidences
+     */
+    private static Map<Set<PhysicalEvidence>, Long> evidencesPerConcept(Set<LogicalEvidence> logicalEvidences) {
+        return logicalEvidences.stream().collect(Collectors.groupingBy(
+                logicalEvidence -> new HashSet<>(logicalEvidence.getPhysicalEvidences()), Collectors.counting()));
+    }
+
+    @Test
+    public void testAggregatorAddAndRemove() {
+        ACMLogicalEvidenceBuilder builder = new ACMLogicalEvidenceBuilder();
+        ACMLogicalEvidenceAggregator aggregator = builder.newAggregator();
+        List<PhysicalEvidence> evidences = new ArrayList<>(mixedEvidences(20));
+        Set<PhysicalEvidence> current = new LinkedHashSet<>();
+
+        Random random = new Random(42);
+        for (int step = 0; step < 200; step++) {
+            PhysicalEvidence physicalEvidence = evidences.get(random.nextInt(evidences.size()));
+            if (random.nextInt(3) == 0) {
+                assertEquals(current.remove(physicalEvidence), aggregator.remove(physicalEvidence));
+            } else {
+                current.add(physicalEvidence);
+                aggregator.add(physicalEvidence);
+            }
+            if (step % 20 == 0) {
+                assertEquals(current.size(), aggregator.getEvidenceCount());
+                assertEquals(evidencesPerConcept(builder.getLogicalEvidences(current)), evidencesPerConcept(aggregator.snapshot()));
+            }
+        }
+        current.forEach(aggregator::remove);
+        assertTrue(aggregator.snapshot().isEmpty());
+        assertEquals(0, aggregator.getEvidenceCount());
+    }
+
+    @Test
+    public void testMultilingualClassification() throws IOException {
+        ACMMultilingualClassification classifications = new ACMMultilingualClassification();
+        classifications.registerLanguage(ACMTextAnalyzer.SPANISH,
+                new TranslationStore(Collections.emptyMap(), null), new OfflineTranslationProvider());
+
+        ACMClassification english = classifications.get("en");
+        assertFalse(classifications.isLoaded("es"));
+        ACMClassification spanish = classifications.get("es");
+        assertTrue(classifications.isLoaded("es"));
+        assertTrue(english.getTaxonomy().hasSameStructure(spanish.getTaxonomy()));
+        assertEquals(english.getNodes().size(), spanish.getNodes().size());
+
+        // Untranslated labels, so spanish only differs in the analyzer
+        assertEquals(english.getTrueLabel(Arrays.asList("database", "system")),
+                spanish.getTrueLabel(Arrays.asList("database", "system")));
+        assertSame(english, classifications.getOrDefault("de"));
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            ACMLogicalEvidenceBuilder builder = ACMLogicalEvidenceBuilder.createAsync(executor).get();
+            assertTrue(ACMClassificationRegistry.getDefault().isLoaded("pt"));
+            assertTrue(builder.getLogicalEvidencesAsync(Collections.emptySet(), executor).get().isEmpty());
+
+            ACMMultilingualClassification classifications = new ACMMultilingualClassification();
+            classifications.registerLanguage(ACMTextAnalyzer.SPANISH, new TranslationStore(Collections.emptyMap(), null),
+                    (texts, sourceLanguage, targetLanguage) -> {
+                        throw new IOException("Translation service unavailable");
+                    });
+            try {
+                ACMLogicalEvidenceBuilder.createAsync(classifications, executor, "es").get();
+                fail("Load failure not reported");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        String header = "<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\" xmlns:skos=\"http://www.w3.org/2004/02/skos/core#\">"
+                + "<skos:Concept rdf:about=\"#root\"><skos:prefLabel>Computing</skos:prefLabel></skos:Concept>"
+                + "<skos:Concept rdf:about=\"#db\"><skos:prefLabel>Database systems</skos:prefLabel><skos:broader rdf:resource=\"#root\"/></skos:Concept>";
+        AtomicReference<String> skos = new AtomicReference<>(header + "</rdf:RDF>");
+        ACMMultilingualClassification classifications = new ACMMultilingualClassification(
+                () -> new ByteArrayInputStream(skos.get().getBytes(StandardCharsets.UTF_8)));
+
+        ACMMultilingualClassification.Version first = classifications.current();
+        ACMClassification english = first.get("en");
+        assertEquals(1, classifications.getVersion());
+        assertTrue(english.getTopLabels(Arrays.asList("graphics", "rendering"), 1, 0).isEmpty());
+
+        skos.set(header + "<skos:Concept rdf:about=\"#gr\"><skos:prefLabel>Computer graphics rendering</skos:prefLabel>"
+                + "<skos:broader rdf:resource=\"#root\"/></skos:Concept></rdf:RDF>");
+        assertEquals(2L, (long) classifications.reload(Runnable::run).get());
+
+        // Calls holding the previous version keep using it
+        assertSame(english, first.get("en"));
+        assertTrue(english.getTopLabels(Arrays.asList("graphics", "rendering"), 1, 0).isEmpty());
+        ACMClassification reloaded = classifications.get("en");
+        assertNotSame(english, reloaded);
+        assertEquals("#gr", reloaded.getTopLabels(Arrays.asList("graphics", "rendering"), 1, 0).get(0).getNode().getId());
+
+        // Cached concepts of a previous version are not returned once a call uses the next one
+        ACMLogicalEvidenceBuilder builder = new ACMLogicalEvidenceBuilder(classifications);
+        builder.setResultCache(new ACMClassificationCache(100));
+        Set<PhysicalEvidence> evidences = Collections.singleton(evidence("en", "computing", "graphics", "rendering", "database"));
+        assertSame(node(reloaded, "#gr"), node(builder.buildFor(evidences).keySet(), "#gr"));
+        assertEquals(3L, (long) classifications.reload(Runnable::run).get());
+        reloaded = classifications.get("en");
+        assertSame(node(reloaded, "#gr"), node(builder.buildFor(evidences).keySet(), "#gr"));
+
+        skos.set("<rdf:RDF");
+        try {
+            classifications.reload(Runnable::run).get();
+            fail("Reload failure not reported");
+        } catch (ExecutionException e) {
+            assertSame(reloaded, classifications.get("en"));
+            assertEquals(3, classifications.getVersion());
+        }
+    }
+
+    @Test
+    public void testReloadDictionary() throws Exception {
+        String skos = "<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\" xmlns:skos=\"http://www.w3.org/2004/02/skos/core#\">"
+                + concept("root", "Computing") + concept("db", "Database systems", "root")
+                + concept("gr", "Computer graphics rendering", "root") + "</rdf:RDF>";
+        ACMMultilingualClassification classifications = new ACMMultilingualClassification(
+                () -> new ByteArrayInputStream(skos.getBytes(StandardCharsets.UTF_8)));
+        classifications.get("en");
+
+        // Reloading the same vocabulary adds no terms
+        ACMTermDictionary dictionary = ACMTermDictionary.current();
+        int terms = dictionary.size();
+        for (int i = 0; i < 3; i++) {
+            classifications.reload(Runnable::run).get();
+        }
+        assertEquals(terms, dictionary.size());
+
+        // Classifications of a previous generation keep working once a new one is started
+        ACMClassification previous = classifications.get("en");
+        ACMTermDictionary.newGeneration();
+        classifications.reload(Runnable::run).get();
+        ACMClassification reloaded = classifications.get("en");
+        assertNotSame(dictionary, ACMTermDictionary.current());
+        assertEquals(terms, dictionary.size());
+        List<String> words = Arrays.asList("graphics", "rendering");
+        assertEquals(previous.getTopLabels(words, 1, 0).get(0).getNode().getId(), reloaded.getTopLabels(words, 1, 0).get(0).getNode().getId());
+        assertEquals(node(previous, "#gr").getFullLabels(), node(reloaded, "#gr").getFullLabels());
+    }
+
+    @Test
+    public void testPutDuringReload() throws Exception {
+        String skos = "<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\" xmlns:skos=\"http://www.w3.org/2004/02/skos/core#\">"
+                + concept("root", "Computing") + concept("db", "Database systems", "root") + "</rdf:RDF>";
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean block = new AtomicBoolean();
+        ACMMultilingualClassification classifications = new ACMMultilingualClassification(() -> {
+            if (block.get()) {
+                reading.countDown();
+                release.await();
+            }
+            return new ByteArrayInputStream(skos.getBytes(StandardCharsets.UTF_8));
+        });
+        classifications.get("en");
+
+        ACMClassification english = new ACMClassification();
+        english.loadSKOS(new ByteArrayInputStream(skos.getBytes(StandardCharsets.UTF_8)));
+        ACMClassification other = new ACMClassification();
+        other.loadSKOS(new ByteArrayInputStream(skos.getBytes(StandardCharsets.UTF_8)));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            block.set(true);
+            CompletableFuture<Long> reload = classifications.reload(executor);
+            assertTrue(reading.await(10, TimeUnit.SECONDS));
+            // Put while the reload is loading the previous languages
+            classifications.put("en", english);
+            classifications.put("xx", other);
+            release.countDown();
+
+            assertEquals(2L, (long) reload.get());
+            assertSame(english, classifications.get("en"));
+            assertSame(other, classifications.get("xx"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testReloadKeepsProvidedClassifications() throws Exception {
+        ACMClassification english = new ACMClassification();
+        english.loadXML();
+        ACMMultilingualClassification classifications = new ACMMultilingualClassification();
+        classifications.put("en", english);
+        classifications.get("pt");
+
+        classifications.reload(Runnable::run).get();
+        assertSame(english, classifications.get("en"));
+        assertTrue(classifications.isLoaded("pt"));
+    }
+
+    @Test
+    public void testRollUp() throws Exception {
+        // c and d have two broader concepts each, so e reaches a both at distance 2 (e-d-a) and 3 (e-d-c-a)
+        String skos = "<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\" xmlns:skos=\"http://www.w3.org/2004/02/skos/core#\">"
+                + concept("r", "Root") + concept("a", "Alpha", "r") + concept("b", "Beta", "r") + concept("c", "Gamma", "a", "b")
+                + concept("d", "Delta", "c", "a") + concept("e", "Epsilon", "d") + concept("f", "Phi", "r") + "</rdf:RDF>";
+        ACMClassification classification = new ACMClassification();
+        classification.loadSKOS(new ByteArrayInputStream(skos.getBytes(StandardCharsets.UTF_8)));
+
+        PhysicalEvidence p1 = evidence("en", "one");
+        PhysicalEvidence p2 = evidence("en", "two");
+        PhysicalEvidence p3 = evidence("en", "three");
+        PhysicalEvidence p4 = evidence("en", "four");
+        Map<ACMClassification.ACMClassificationNode, List<PhysicalEvidence>> evidences = new HashMap<>();
+        evidences.put(node(classification, "#e"), Arrays.asList(p1));
+        evidences.put(node(classification, "#c"), Arrays.asList(p2));
+        evidences.put(node(classification, "#d"), Arrays.asList(p3));
+        evidences.put(node(classification, "#b"), Arrays.asList(p3, p4));
+
+        // Powers of ten make the weight of each concept spell out its count of evidences per distance
+        double[] levelWeights = {1, 10, 100, 1000};
+        for (int maxDistance : new int[]{Integer.MAX_VALUE, 2, 1, 0}) {
+            ACMEvidenceRollup rollup = new ACMEvidenceRollup();
+            rollup.setLevelWeights(levelWeights);
+            rollup.setMaxDistance(maxDistance);
+            Map<String, ACMConceptEvidence> rolledUp = new HashMap<>();
+            for (ACMConceptEvidence conceptEvidence : rollup.rollUp(classification, evidences)) {
+                rolledUp.put(conceptEvidence.getConcept().getId(), conceptEvidence);
+            }
+
+            ACMTaxonomy taxonomy = classification.getTaxonomy();
+            for (int concept = 0; concept < taxonomy.size(); concept++) {
+                String id = taxonomy.getId(concept);
+                int count = 0, directCount = 0;
+                double weight = 0;
+                for (PhysicalEvidence physicalEvidence : Arrays.asList(p1, p2, p3, p4)) {
+                    int distance = Integer.MAX_VALUE;
+                    for (Map.Entry<ACMClassification.ACMClassificationNode, List<PhysicalEvidence>> entry : evidences.entrySet()) {
+                        if (entry.getValue().contains(physicalEvidence)) {
+                            int[] distances = upwardDistances(taxonomy, taxonomy.getConcept(entry.getKey().getId()));
+                            distance = Math.min(distance, distances[concept]);
+                        }
+                    }
+                    if (distance != Integer.MAX_VALUE && distance <= maxDistance) {
+                        count++;
+                        directCount += distance == 0 ? 1 : 0;
+                        weight += levelWeights[Math.min(distance, levelWeights.length - 1)];
+                    }
+                }
+                ACMConceptEvidence conceptEvidence = rolledUp.get(id);
+                if (count == 0) {
+                    assertNull(id + " at " + maxDistance, conceptEvidence);
+                    continue;
+                }
+                assertNotNull(id + " at " + maxDistance, conceptEvidence);
+                assertEquals(id + " at " + maxDistance, count, conceptEvidence.getCount());
+                assertEquals(id + " at " + maxDistance, directCount, conceptEvidence.getDirectCount());
+                assertEquals(id + " at " + maxDistance, weight, conceptEvidence.getWeight(), 0.0);
+            }
+        }
+    }
+
+    private static String concept(String id, String label, String... broader) {
+        StringBuilder concept = new StringBuilder("<skos:Concept rdf:about=\"#" + id + "\"><skos:prefLabel>" + label + "</skos:prefLabel>");
+        for (String broaderId : broader) {
+            concept.append("<skos:broader rdf:resource=\"#").append(broaderId).append("\"/>");
+        }
+        return concept.append("</skos:Concept>").toString();
+    }
+
+    /**
+     * Shortest distance from the concept to each concept above it, by breadth-first search over the broader links
+     */
+    private static int[] upwardDistances(ACMTaxonomy taxonomy, int concept) {
+        int[] distances = new int[taxonomy.size()];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        distances[concept] = 0;
+        Deque<Integer> queue = new ArrayDeque<>(Collections.singleton(concept));
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            for (int parent : taxonomy.getParents(current)) {
+                if (distances[parent] == Integer.MAX_VALUE) {
+                    distances[parent] = distances[current] + 1;
+                    queue.add(parent);
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * English and portuguese evidences, each with keywords of its own
+     */
+    private static Set<PhysicalEvidence> mixedEvidences(int count) {
+        String[] english = {"database,query optimization", "computer graphics,rendering", "machine learning,neural networks",
+                "software testing,verification", "computer networks,routing", "operating systems,scheduling",
+                "information retrieval,search engines", "cryptography,security", "compilers,parsing", "robotics,planning"};
+        String[] portuguese = {"banco de dados,consultas", "computação gráfica,renderização", "aprendizado de máquina,redes neurais",
+                "teste de software,verificação", "redes de computadores,roteamento", "sistemas operacionais,escalonamento",
+                "recuperação de informação,busca", "criptografia,segurança", "compiladores,análise sintática", "robótica,planejamento"};
+        Set<PhysicalEvidence> evidences = new LinkedHashSet<>();
+        for (int i = 0; i < count; i++) {
+            evidences.add(evidence("en", (english[i % english.length] + ",e" + i).split(",")));
+            evidences.add(evidence("pt", (portuguese[i % portuguese.length] + ",p" + i).split(",")));
+        }
+        return evidences;
+    }
+
+    private static PhysicalEvidence evidence(String language, String... keywords) {
+        PhysicalEvidence evidence = new PhysicalEvidence();
+        evidence.setLanguage(language);
+        evidence.getKeywords().addAll(Arrays.asList(keywords));
+        return evidence;
+    }
+
+    private static ACMClassification.ACMClassificationNode node(ACMClassification classification, String id) {
+        return classification.getNodes().get(classification.getTaxonomy().getConcept(id));
+    }
+
+    private static ACMClassification.ACMClassificationNode node(Collection<ACMClassification.ACMClassificationNode> nodes, String id) {
+        return nodes.stream().filter(node -> node.getId().equals(id)).findFirst().orElse(null);
+    }
 }